@@ -2,23 +2,53 @@ package lab1.app;
 
 import lab1.command.*;
 import lab1.command.xml.*;
+import lab1.model.BackgroundSpellChecker;
+import lab1.model.Editor;
+import lab1.model.FileFollower;
+import lab1.model.IncrementalSpellChecker;
+import lab1.model.MappedFileViewer;
+import lab1.model.ParallelSpellChecker;
+import lab1.model.TextEdit;
 import lab1.model.Workspace;
 import lab1.model.XmlEditor;
+import lab1.model.XmlSpellChecker;
+import lab1.utils.DictionarySpellChecker;
 import lab1.utils.Logger;
 import lab1.utils.SpellChecker;
 import lab1.utils.MockSpellCheckerAdapter;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Main {
+    // 词典文件：可用 -Dspellcheck.dictionary=<path> 指定，默认为当前目录下的 dictionary.txt
+    private static final String DICTIONARY_PROPERTY = "spellcheck.dictionary";
+    private static final String DEFAULT_DICTIONARY = "dictionary.txt";
+    private static final int DEFAULT_VIEW_LINES = 20; // 只读查看模式下 show 不带范围时显示的行数
+
+    private static SpellChecker spellChecker;
+    private static BackgroundSpellChecker backgroundSpellChecker; // spell-bg on 时创建
+    private static FileFollower follower; // follow start 时创建
+
     public static void main(String[] args) {
         Workspace workspace = new Workspace();
         CommandHistory history = new CommandHistory();
         Scanner scanner = new Scanner(System.in);
+        // 后台拼写检查开启时，每次执行 / 撤销 / 重做命令后重新安排当前文件的检查
+        history.addListener(command -> {
+            if (backgroundSpellChecker != null && workspace.getActiveEditor() != null) {
+                backgroundSpellChecker.schedule(workspace.getActiveEditor());
+            }
+        });
 
         System.out.println("=== Lab2 多功能编辑器 ===");
         System.out.println("支持功能: 文本编辑 | XML 编辑 | 拼写检查 | 统计模块");
@@ -48,19 +78,26 @@ public class Main {
                         System.out.println("--- 命令列表 ---");
                         System.out.println(
                                 "工作区: load <file>, save [file|all], init <text|xml> <file> [with-log], close [file]");
-                        System.out.println("       editor-list, dir-tree [path], exit");
+                        System.out.println("       view <file> (只读查看大文件), editor-list, dir-tree [path], exit");
                         System.out.println("文本编辑: append \"text\", insert <line:col> \"text\"");
                         System.out.println("         delete <line:col> <len>, replace <line:col> <len> \"text\"");
                         System.out.println("         show [start:end], undo, redo");
+                        System.out.println("只读查看: show [start:end], follow <start|stop>");
+                        System.out.println("历史:    history, history-limit <entries> [MB]");
                         System.out.println("XML编辑:  insert-before <tag> <newId> <targetId> [\"text\"]");
                         System.out.println("         append-child <tag> <newId> <parentId> [\"text\"]");
                         System.out.println("         edit-id <oldId> <newId>, edit-text <id> \"text\"");
                         System.out.println("         delete-element <id>, xml-tree");
                         System.out.println("日志:    log-on [file], log-off [file], log-show [file]");
-                        System.out.println("拼写检查: spell-check [file]");
+                        System.out.println("拼写检查: spell-check [all], spell-bg <on|off>, spell-status");
                         break;
                     case "exit":
                         workspace.saveWorkspaceState(); // 退出前保存状态 [cite: 176]
+                        Logger.shutdown(); // 写完队列中的日志并关闭日志文件
+                        stopFollow();
+                        if (backgroundSpellChecker != null) {
+                            backgroundSpellChecker.shutdown();
+                        }
                         System.out.println("Bye.");
                         return;
 
@@ -71,6 +108,12 @@ public class Main {
                     case "save":
                         workspace.save(parts.length > 1 ? parts[1] : null);
                         break;
+                    case "view":
+                        workspace.view(parts[1]);
+                        break;
+                    case "follow":
+                        handleFollow(workspace, parts);
+                        break;
                     case "init":
                         // init <text|xml> <file> [with-log]
                         String editorType = parts[1];
@@ -80,6 +123,9 @@ public class Main {
                         break;
                     case "close":
                         workspace.close(parts.length > 1 ? parts[1] : null);
+                        if (follower != null && !workspace.getEditors().containsValue(follower.getViewer())) {
+                            stopFollow(); // 正在跟随的文件被关闭
+                        }
                         break;
                     case "editor-list":
                         workspace.showEditorList();
@@ -95,6 +141,17 @@ public class Main {
                     case "redo":
                         history.redo();
                         break;
+                    case "history":
+                        history.showStatus();
+                        break;
+                    case "history-limit":
+                        // history-limit <entries> [MB]
+                        int maxEntries = Integer.parseInt(parts[1]);
+                        long maxBytes = parts.length > 2 ? Long.parseLong(parts[2]) * 1024 * 1024
+                                : CommandHistory.DEFAULT_MAX_BYTES;
+                        history.setLimits(maxEntries, maxBytes);
+                        history.showStatus();
+                        break;
 
                     // --- 日志命令 ---
                     case "log-on":
@@ -119,6 +176,14 @@ public class Main {
                             System.out.println("错误: 没有活动文件");
                             break;
                         }
+                        if (workspace.getActiveViewer() != null) {
+                            if ("show".equals(cmdName)) {
+                                handleViewShow(workspace.getActiveViewer(), parts);
+                            } else {
+                                System.out.println("错误: 只读查看模式不能编辑");
+                            }
+                            break;
+                        }
                         handleEditCommand(cmdName, parts, workspace, history);
                         break;
 
@@ -138,7 +203,13 @@ public class Main {
 
                     // --- 拼写检查命令 ---
                     case "spell-check":
-                        handleSpellCheck(workspace);
+                        handleSpellCheck(workspace, parts);
+                        break;
+                    case "spell-bg":
+                        handleSpellBackground(workspace, parts);
+                        break;
+                    case "spell-status":
+                        handleSpellStatus(workspace);
                         break;
 
                     default:
@@ -177,6 +248,13 @@ public class Main {
                     hist.execute(new DeleteCommand(ws.getActiveTextEditor(),
                             Integer.parseInt(posD[0]), Integer.parseInt(posD[1]), Integer.parseInt(args[2])));
                     break;
+                case "replace":
+                    // replace line:col len "text"
+                    String[] posR = args[1].split(":");
+                    TextEdit edit = new TextEdit(Integer.parseInt(posR[0]), Integer.parseInt(posR[1]),
+                            Integer.parseInt(args[2]), args[3]);
+                    hist.execute(new BatchEditCommand(ws.getActiveTextEditor(), List.of(edit)));
+                    break;
                 case "show":
                     // show or show start:end
                     List<String> lines = ws.getActiveTextEditor().getLines();
@@ -196,31 +274,168 @@ public class Main {
         }
     }
 
+    // 只读查看模式的 show [start:end]：直接从内存映射读取，不读入整个文件
+    private static void handleViewShow(MappedFileViewer viewer, String[] args) {
+        try {
+            viewer.refresh(); // 文件在增长时先扩展行索引（只扫描新追加的部分）
+            long start = 1;
+            long end = DEFAULT_VIEW_LINES;
+            if (args.length > 1) {
+                String[] range = args[1].split(":");
+                start = Long.parseLong(range[0]);
+                end = Long.parseLong(range[1]);
+            }
+            int count = (int) Math.min(Math.max(end - start + 1, 0), Integer.MAX_VALUE);
+            long line = start;
+            for (String text : viewer.readLines(start, count)) {
+                System.out.println(line++ + ": " + text);
+            }
+            if (viewer.isIndexComplete()) {
+                System.out.println("(共 " + viewer.getLineCount() + " 行)");
+            } else {
+                System.out.println("(正在建立行索引: " + viewer.getIndexedBytes() * 100 / Math.max(viewer.getSize(), 1)
+                        + "%, 已知 " + viewer.getLineCount() + " 行)");
+            }
+        } catch (Exception e) {
+            System.out.println("命令参数错误: " + e.getMessage());
+        }
+    }
+
+    // follow <start|stop>：跟随只读查看的文件，文件增长时只输出新追加的行
+    private static void handleFollow(Workspace workspace, String[] args) {
+        if (args.length < 2 || !("start".equals(args[1]) || "stop".equals(args[1]))) {
+            System.out.println("用法: follow <start|stop>");
+            return;
+        }
+        if ("stop".equals(args[1])) {
+            System.out.println(stopFollow() ? "已停止跟随" : "跟随模式未启动");
+            return;
+        }
+        MappedFileViewer viewer = workspace.getActiveViewer();
+        if (viewer == null) {
+            System.out.println("错误: 跟随模式只能用于只读查看的文件 (view <file>)");
+            return;
+        }
+        stopFollow();
+        follower = new FileFollower(viewer);
+        follower.start(System.out::println, FileFollower.DEFAULT_INTERVAL_MILLIS);
+        System.out.println("正在跟随 " + workspace.getCurrentFilename() + " 的新内容 (follow stop 停止)");
+    }
+
+    private static boolean stopFollow() {
+        if (follower == null) {
+            return false;
+        }
+        follower.stop();
+        follower = null;
+        return true;
+    }
+
+    // spell-bg <on|off>：开启后每次编辑都在后台检查改动的区域
+    private static void handleSpellBackground(Workspace workspace, String[] args) {
+        if (args.length < 2 || !("on".equals(args[1]) || "off".equals(args[1]))) {
+            System.out.println("用法: spell-bg <on|off>");
+            return;
+        }
+        if ("on".equals(args[1])) {
+            if (backgroundSpellChecker == null) {
+                backgroundSpellChecker = new BackgroundSpellChecker(getSpellChecker());
+            }
+            if (workspace.getActiveEditor() != null) {
+                backgroundSpellChecker.schedule(workspace.getActiveEditor());
+            }
+            System.out.println("后台拼写检查已开启");
+        } else {
+            if (backgroundSpellChecker != null) {
+                backgroundSpellChecker.shutdown();
+                backgroundSpellChecker = null;
+            }
+            System.out.println("后台拼写检查已关闭");
+        }
+    }
+
+    // spell-status：查看后台检查的当前结果，不等待检查完成
+    private static void handleSpellStatus(Workspace workspace) {
+        if (backgroundSpellChecker == null) {
+            System.out.println("后台拼写检查未开启 (spell-bg on)");
+            return;
+        }
+        if (workspace.getActiveEditor() == null) {
+            System.out.println("错误: 没有活动文件");
+            return;
+        }
+        BackgroundSpellChecker.Status status = backgroundSpellChecker.query(workspace.getActiveEditor());
+        if (status.isComplete()) {
+            System.out.println("后台检查已完成");
+        } else {
+            System.out.println("后台检查进行中... (尚有 " + status.getRemaining() + " 处未检查，以下为已检查部分)");
+        }
+        printSpellingErrors(status.getErrors());
+    }
+
     // 处理拼写检查命令
-    private static void handleSpellCheck(Workspace workspace) {
+    private static void handleSpellCheck(Workspace workspace, String[] args) {
+        if (args.length > 1 && "all".equals(args[1])) {
+            handleSpellCheckAll(workspace);
+            return;
+        }
         if (workspace.getActiveEditor() == null) {
             System.out.println("错误: 没有活动文件");
             return;
         }
 
-        SpellChecker checker = new MockSpellCheckerAdapter();
-        String textToCheck = "";
+        if (workspace.getActiveEditor().isReadOnly()) {
+            System.out.println("错误: 只读查看模式不支持拼写检查");
+            return;
+        }
+
+        SpellChecker checker = getSpellChecker();
+        List<SpellChecker.SpellingError> errors;
 
         // 根据文件类型获取待检查的文本
         if (workspace.getActiveXmlEditor() != null) {
-            // XML 文件：只检查元素的文本内容
-            textToCheck = workspace.getActiveXmlEditor().getAllTextContent();
-            System.out.println("正在检查 XML 文件的文本内容...");
-        } else if (workspace.getActiveTextEditor() != null) {
-            // 文本文件：检查全文
-            textToCheck = workspace.getActiveTextEditor().getText();
-            System.out.println("正在检查文本文件...");
+            // XML 文件：逐个检查元素的文本节点，只重新检查文本改动过的节点
+            XmlSpellChecker spellCheck = workspace.getActiveXmlEditor().getSpellCheck(checker);
+            errors = spellCheck.check();
+            System.out.println("正在检查 XML 文件的文本内容... (重新检查 " + spellCheck.getLastCheckedNodes() + " 个节点)");
+        } else {
+            // 文本文件：只重新检查上次以来改动过的行
+            IncrementalSpellChecker spellCheck = workspace.getActiveTextEditor().getSpellCheck(checker);
+            errors = spellCheck.check();
+            System.out.println("正在检查文本文件... (重新检查 " + spellCheck.getLastCheckedLines() + "/"
+                    + workspace.getActiveTextEditor().getLines().size() + " 行)");
         }
 
-        // 执行拼写检查
-        List<SpellChecker.SpellingError> errors = checker.check(textToCheck);
+        printSpellingErrors(errors);
+    }
+
+    // 并行检查工作区中的所有文件，按打开顺序输出
+    private static void handleSpellCheckAll(Workspace workspace) {
+        if (workspace.getEditors().isEmpty()) {
+            System.out.println("错误: 没有打开的文件");
+            return;
+        }
+        // 跳过只读查看的文件
+        Map<String, Editor> editors = new LinkedHashMap<>();
+        for (Map.Entry<String, Editor> entry : workspace.getEditors().entrySet()) {
+            if (!entry.getValue().isReadOnly()) {
+                editors.put(entry.getKey(), entry.getValue());
+            }
+        }
+        ParallelSpellChecker parallel = new ParallelSpellChecker(getSpellChecker());
+        long start = System.nanoTime();
+        Map<String, List<SpellChecker.SpellingError>> results = parallel.checkAll(editors);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        for (Map.Entry<String, List<SpellChecker.SpellingError>> entry : results.entrySet()) {
+            System.out.println("== " + entry.getKey() + " ==");
+            printSpellingErrors(entry.getValue());
+        }
+        System.out.println("共检查 " + results.size() + " 个文件, 耗时 " + millis + " ms (并行度 "
+                + parallel.getParallelism() + ")");
+    }
 
-        // 输出结果
+    private static void printSpellingErrors(List<SpellChecker.SpellingError> errors) {
         if (errors.isEmpty()) {
             System.out.println("未发现拼写错误。");
         } else {
@@ -231,6 +446,29 @@ public class Main {
         }
     }
 
+    // 首次使用时加载词典，没有词典文件时退回到模拟检查器
+    private static SpellChecker getSpellChecker() {
+        if (spellChecker != null) {
+            return spellChecker;
+        }
+        Path dictionary = Paths.get(System.getProperty(DICTIONARY_PROPERTY, DEFAULT_DICTIONARY));
+        if (Files.isRegularFile(dictionary)) {
+            try {
+                long start = System.nanoTime();
+                DictionarySpellChecker loaded = DictionarySpellChecker.load(dictionary);
+                System.out.printf("已加载词典 %s: %d 个单词, %.1f MB, 耗时 %d ms%n", dictionary,
+                        loaded.size(), loaded.memoryBytes() / (1024.0 * 1024.0),
+                        (System.nanoTime() - start) / 1_000_000);
+                spellChecker = loaded;
+                return spellChecker;
+            } catch (IOException e) {
+                System.out.println("词典加载失败，使用内置检查器: " + e.getMessage());
+            }
+        }
+        spellChecker = new MockSpellCheckerAdapter();
+        return spellChecker;
+    }
+
     // 处理 XML 编辑命令
     private static void handleXmlCommand(String cmd, String[] args, Workspace ws, CommandHistory hist) {
         try {
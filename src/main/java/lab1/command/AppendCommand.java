@@ -1,31 +1,59 @@
 package lab1.command;
 
 import lab1.model.TextEditor;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public class AppendCommand implements Command {
     private TextEditor editor;
-    private String text;
+    // 连续追加合并后，一个命令可以包含多行
+    private List<String> texts = new ArrayList<>(1);
+    private long textLength;
+    // 执行时实际增加的行数：文本含换行时一次追加会拆成多行
+    private int addedLines;
 
     public AppendCommand(TextEditor editor, String text) {
         this.editor = editor;
-        this.text = text;
+        this.texts.add(text);
+        this.textLength = text.length();
     }
 
     @Override
     public void execute() {
-        editor.append(text);
+        int before = editor.getBuffer().lineCount();
+        for (String text : texts) {
+            editor.append(text);
+        }
+        addedLines = editor.getBuffer().lineCount() - before;
     }
 
     @Override
     public void undo() {
-        // 撤销追加 = 删除最后一行
+        // 撤销追加 = 删除最后追加的那些行
         List<String> lines = editor.getLines();
-        if (!lines.isEmpty()) {
+        for (int i = 0; i < addedLines && !lines.isEmpty(); i++) {
             // 直接移除 list 的最后一个元素
             lines.remove(lines.size() - 1);
-            // 记得标记为已修改，虽然是撤销，但文件状态确实变了
-            editor.setModified(true);
         }
+        // 记得标记为已修改，虽然是撤销，但文件状态确实变了
+        editor.setModified(true);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + 8L * texts.size() + 2L * textLength;
+    }
+
+    @Override
+    public boolean mergeWith(Command next) {
+        if (!(next instanceof AppendCommand) || ((AppendCommand) next).editor != editor) {
+            return false;
+        }
+        AppendCommand other = (AppendCommand) next;
+        texts.addAll(other.texts);
+        textLength += other.textLength;
+        addedLines += other.addedLines;
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package lab1.command;
+
+import lab1.model.TextEdit;
+import lab1.model.TextEditor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量编辑命令：一组范围编辑作为一个整体执行和撤销
+ */
+public class BatchEditCommand implements Command {
+    private TextEditor editor;
+    private List<TextEdit> edits;
+    private List<TextEdit> inverse; // 执行后得到的逆向编辑
+
+    public BatchEditCommand(TextEditor editor, List<TextEdit> edits) {
+        this.editor = editor;
+        this.edits = new ArrayList<>(edits);
+    }
+
+    @Override
+    public void execute() {
+        inverse = editor.applyEdits(edits);
+    }
+
+    @Override
+    public void undo() {
+        if (inverse != null) {
+            editor.applyEdits(inverse);
+        }
+    }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + sizeOf(edits) + sizeOf(inverse);
+    }
+
+    private static long sizeOf(List<TextEdit> list) {
+        if (list == null) {
+            return 0;
+        }
+        long size = 0;
+        for (TextEdit edit : list) {
+            size += 40 + 2L * edit.getText().length();
+        }
+        return size;
+    }
+}
@@ -3,4 +3,21 @@ package lab1.command;
 public interface Command {
     void execute();
     void undo();
-}
\ No newline at end of file
+
+    /**
+     * 估算该命令在历史记录中保留的内存（字节），用于历史容量控制
+     */
+    default long estimatedSize() {
+        return 64;
+    }
+
+    /**
+     * 尝试把紧接着执行的命令 next（已执行完毕）合并进当前命令
+     * 合并后当前命令的 execute/undo 必须等价于依次执行/撤销两者
+     *
+     * @return true 表示已合并，next 不再单独进入历史
+     */
+    default boolean mergeWith(Command next) {
+        return false;
+    }
+}
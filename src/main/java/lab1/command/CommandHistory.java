@@ -1,27 +1,70 @@
 package lab1.command;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 public class CommandHistory {
-    // 撤销栈：存刚才做过的操作
-    private Stack<Command> undoStack = new Stack<>();
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_MERGE_WINDOW_MILLIS = 1000;
+    public static final long DEFAULT_MAX_MERGED_BYTES = 16 * 1024;
+
+    // 撤销栈：存刚才做过的操作（队尾为最新，队首为最旧，便于淘汰）
+    // ArrayDeque 是非同步的环形数组，比 Stack(Vector) 更轻
+    private final Deque<Command> undoStack = new ArrayDeque<>();
     // 重做栈：存刚才撤销回去的操作
-    private Stack<Command> redoStack = new Stack<>();
+    private final Deque<Command> redoStack = new ArrayDeque<>();
+
+    private int maxEntries;
+    private long maxBytes;
+    private long retainedBytes; // 两个栈中命令的估算内存总和
+    private long evictedCount;
+
+    // 连续编辑合并：间隔在时间窗口内、合并后不超过大小上限才合并
+    private long mergeWindowNanos = DEFAULT_MERGE_WINDOW_MILLIS * 1_000_000;
+    private long maxMergedBytes = DEFAULT_MAX_MERGED_BYTES;
+    private long lastExecuteNanos;
+    private boolean mergeable; // undo/redo 之后不再与之前的记录合并
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * 历史监听器：命令执行、撤销、重做之后收到通知（在调用线程中同步回调）
+     */
+    public interface Listener {
+        void commandApplied(Command command);
+    }
+
+    public CommandHistory() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public CommandHistory(int maxEntries, long maxBytes) {
+        setLimits(maxEntries, maxBytes);
+    }
 
     // 执行新命令时调用这个
     public void execute(Command cmd) {
         cmd.execute();         // 让命令干活
-        undoStack.push(cmd);   // 入栈记录
-        redoStack.clear();     // 一旦有新操作，之前的重做历史就失效了
+        if (!tryMerge(cmd)) {
+            push(cmd);         // 入栈记录
+        }
+        clearRedo();           // 一旦有新操作，之前的重做历史就失效了
+        evict();
+        fireApplied(cmd);
     }
 
     // 撤销
     public void undo() {
         if (!undoStack.isEmpty()) {
-            Command cmd = undoStack.pop();
+            Command cmd = undoStack.pollLast();
+            mergeable = false;
             cmd.undo();        // 执行反向操作
             redoStack.push(cmd); // 放入重做栈，万一你后悔撤销了呢
             System.out.println("已撤销");
+            fireApplied(cmd);
         } else {
             System.out.println("没有可撤销的操作");
         }
@@ -31,11 +74,122 @@ public class CommandHistory {
     public void redo() {
         if (!redoStack.isEmpty()) {
             Command cmd = redoStack.pop();
+            mergeable = false;
             cmd.execute();     // 再次执行
-            undoStack.push(cmd); // 放回撤销栈
+            undoStack.addLast(cmd); // 放回撤销栈
             System.out.println("已重做");
+            fireApplied(cmd);
         } else {
             System.out.println("没有可重做的操作");
         }
     }
-}
\ No newline at end of file
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireApplied(Command cmd) {
+        for (Listener listener : listeners) {
+            listener.commandApplied(cmd);
+        }
+    }
+
+    // --- 连续编辑合并 ---
+
+    /**
+     * 设置合并窗口：两次编辑间隔不超过 windowMillis 且合并后估算大小不超过 maxBytes 时合并
+     * windowMillis 为 0 表示关闭合并
+     */
+    public void setMergePolicy(long windowMillis, long maxBytes) {
+        if (windowMillis < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("合并窗口不能为负数");
+        }
+        this.mergeWindowNanos = windowMillis * 1_000_000;
+        this.maxMergedBytes = maxBytes;
+    }
+
+    private boolean tryMerge(Command cmd) {
+        long now = System.nanoTime();
+        boolean withinWindow = mergeable && now - lastExecuteNanos <= mergeWindowNanos;
+        lastExecuteNanos = now;
+        mergeable = true;
+
+        Command last = undoStack.peekLast();
+        if (!withinWindow || last == null || !redoStack.isEmpty()) {
+            return false;
+        }
+        long before = last.estimatedSize();
+        if (before + cmd.estimatedSize() > maxMergedBytes || !last.mergeWith(cmd)) {
+            return false;
+        }
+        retainedBytes += last.estimatedSize() - before;
+        return true;
+    }
+
+    // --- 容量控制 ---
+
+    /**
+     * 设置历史上限：条目数和估算内存（字节），超出时淘汰最旧的撤销记录
+     */
+    public void setLimits(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("历史上限必须为正数");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    private void push(Command cmd) {
+        undoStack.addLast(cmd);
+        retainedBytes += cmd.estimatedSize();
+    }
+
+    private void clearRedo() {
+        for (Command cmd : redoStack) {
+            retainedBytes -= cmd.estimatedSize();
+        }
+        redoStack.clear();
+    }
+
+    private void evict() {
+        // 至少保留最近一条，保证刚执行的操作总能撤销
+        while (undoStack.size() > 1
+                && (undoStack.size() + redoStack.size() > maxEntries || retainedBytes > maxBytes)) {
+            Command oldest = undoStack.pollFirst();
+            retainedBytes -= oldest.estimatedSize();
+            evictedCount++;
+        }
+    }
+
+    // --- 状态查询 ---
+
+    public int getUndoCount() {
+        return undoStack.size();
+    }
+
+    public int getRedoCount() {
+        return redoStack.size();
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * 打印历史记录的条目数和内存占用
+     */
+    public void showStatus() {
+        System.out.println("撤销记录: " + undoStack.size() + " 条, 重做记录: " + redoStack.size() + " 条");
+        System.out.printf("估算内存: %.1f KB (上限: %d 条 / %.1f MB), 已淘汰: %d 条%n",
+                retainedBytes / 1024.0, maxEntries, maxBytes / (1024.0 * 1024.0), evictedCount);
+    }
+}
@@ -29,4 +29,32 @@ public class DeleteCommand implements Command {
             editor.insert(line, col, deletedText);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean mergeWith(Command next) {
+        if (!(next instanceof DeleteCommand)) {
+            return false;
+        }
+        DeleteCommand other = (DeleteCommand) next;
+        if (other.editor != editor || other.line != line || deletedText == null || other.deletedText == null) {
+            return false;
+        }
+        if (other.col + other.len == col) {
+            // 向前删除（退格）：新删除的文本在前面
+            deletedText = other.deletedText + deletedText;
+            col = other.col;
+        } else if (other.col == col) {
+            // 向后删除（Delete 键）：新删除的文本接在后面
+            deletedText = deletedText + other.deletedText;
+        } else {
+            return false;
+        }
+        len += other.len;
+        return true;
+    }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + (deletedText == null ? 0 : 2L * deletedText.length());
+    }
+}
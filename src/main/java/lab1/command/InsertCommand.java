@@ -27,4 +27,24 @@ public class InsertCommand implements Command {
         // 注意：这里我们只要删除刚插进去的长度即可
         editor.delete(line, col, text.length());
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean mergeWith(Command next) {
+        // 只合并同一行上紧接着的插入（典型的连续输入）
+        if (!(next instanceof InsertCommand)) {
+            return false;
+        }
+        InsertCommand other = (InsertCommand) next;
+        if (other.editor != editor || other.line != line || other.col != col + text.length()
+                || text.indexOf('\n') >= 0 || other.text.indexOf('\n') >= 0) {
+            return false;
+        }
+        text = text + other.text;
+        return true;
+    }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + 2L * text.length();
+    }
+}
@@ -2,7 +2,6 @@ package lab1.command.xml;
 
 import lab1.command.Command;
 import lab1.model.XmlEditor;
-import lab1.model.XmlNode;
 
 /**
  * XML 追加子节点命令
@@ -14,7 +13,7 @@ public class AppendChildCommand implements Command {
     private String newId;
     private String parentId;
     private String text;
-    private XmlNode backup;
+    private boolean executed;
 
     public AppendChildCommand(XmlEditor editor, String tagName, String newId, String parentId, String text) {
         this.editor = editor;
@@ -26,16 +25,21 @@ public class AppendChildCommand implements Command {
 
     @Override
     public void execute() {
-        backup = editor.getRoot().clone();
         editor.appendChild(tagName, newId, parentId, text);
+        executed = true;
         System.out.println("已向节点 " + parentId + " 追加子节点 " + newId);
     }
 
     @Override
     public void undo() {
-        if (backup != null) {
-            editor.setRoot(backup);
+        if (executed) {
+            editor.deleteElement(newId);
             System.out.println("已撤销追加操作");
         }
     }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + 2L * (tagName.length() + newId.length() + parentId.length() + (text == null ? 0 : text.length()));
+    }
 }
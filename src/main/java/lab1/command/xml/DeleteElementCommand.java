@@ -3,6 +3,7 @@ package lab1.command.xml;
 import lab1.command.Command;
 import lab1.model.XmlEditor;
 import lab1.model.XmlNode;
+import lab1.model.XmlTraversal;
 
 /**
  * XML 删除元素命令
@@ -11,7 +12,11 @@ import lab1.model.XmlNode;
 public class DeleteElementCommand implements Command {
     private XmlEditor editor;
     private String elementId;
-    private XmlNode backup;
+    // 逆操作所需信息：被摘下的子树、原父节点和原来的下一个兄弟（为 null 表示原来是最后一个子节点）
+    private XmlNode removed;
+    private XmlNode parent;
+    private XmlNode next;
+    private long removedSize; // 被保留子树的估算内存
 
     public DeleteElementCommand(XmlEditor editor, String elementId) {
         this.editor = editor;
@@ -20,16 +25,42 @@ public class DeleteElementCommand implements Command {
 
     @Override
     public void execute() {
-        backup = editor.getRoot().clone();
+        XmlNode node = editor.findNodeById(elementId);
+        XmlNode nodeParent = node != null ? node.getParent() : null;
+        XmlNode nodeNext = node != null ? node.getNextSibling() : null;
         editor.deleteElement(elementId);
+        removed = node;
+        parent = nodeParent;
+        next = nodeNext;
+        removedSize = estimateSubtree(node);
         System.out.println("已删除节点 " + elementId + " 及其子树");
     }
 
     @Override
     public void undo() {
-        if (backup != null) {
-            editor.setRoot(backup);
+        if (removed != null) {
+            editor.restoreElement(parent, next, removed);
             System.out.println("已撤销删除操作");
         }
     }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + 2L * elementId.length() + removedSize;
+    }
+
+    private static long estimateSubtree(XmlNode subtree) {
+        if (subtree == null) {
+            return 0;
+        }
+        long size = 0;
+        for (XmlNode node : XmlTraversal.preOrder(subtree)) {
+            // 节点对象、子节点列表和字符串的粗略开销
+            size += 120 + 2L * (node.getTagName().length() + node.getId().length());
+            if (node.getTextContent() != null) {
+                size += 40 + 2L * node.getTextContent().length();
+            }
+        }
+        return size;
+    }
 }
@@ -2,7 +2,6 @@ package lab1.command.xml;
 
 import lab1.command.Command;
 import lab1.model.XmlEditor;
-import lab1.model.XmlNode;
 
 /**
  * XML 修改节点 ID 命令
@@ -12,7 +11,7 @@ public class EditIdCommand implements Command {
     private XmlEditor editor;
     private String oldId;
     private String newId;
-    private XmlNode backup;
+    private boolean executed;
 
     public EditIdCommand(XmlEditor editor, String oldId, String newId) {
         this.editor = editor;
@@ -22,16 +21,21 @@ public class EditIdCommand implements Command {
 
     @Override
     public void execute() {
-        backup = editor.getRoot().clone();
         editor.editId(oldId, newId);
+        executed = true;
         System.out.println("已将节点 ID 从 " + oldId + " 修改为 " + newId);
     }
 
     @Override
     public void undo() {
-        if (backup != null) {
-            editor.setRoot(backup);
+        if (executed) {
+            editor.editId(newId, oldId);
             System.out.println("已撤销 ID 修改操作");
         }
     }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + 2L * (oldId.length() + newId.length());
+    }
 }
@@ -12,7 +12,8 @@ public class EditTextCommand implements Command {
     private XmlEditor editor;
     private String elementId;
     private String text;
-    private XmlNode backup;
+    private String oldText; // 修改前的文本（可能为 null）
+    private boolean executed;
 
     public EditTextCommand(XmlEditor editor, String elementId, String text) {
         this.editor = editor;
@@ -22,16 +23,25 @@ public class EditTextCommand implements Command {
 
     @Override
     public void execute() {
-        backup = editor.getRoot().clone();
+        XmlNode node = editor.findNodeById(elementId);
+        String previous = node != null ? node.getTextContent() : null;
         editor.editText(elementId, text);
+        oldText = previous;
+        executed = true;
         System.out.println("已修改节点 " + elementId + " 的文本内容");
     }
 
     @Override
     public void undo() {
-        if (backup != null) {
-            editor.setRoot(backup);
+        if (executed) {
+            editor.editText(elementId, oldText);
             System.out.println("已撤销文本修改操作");
         }
     }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + 2L * (elementId.length() + (text == null ? 0 : text.length())
+                + (oldText == null ? 0 : oldText.length()));
+    }
 }
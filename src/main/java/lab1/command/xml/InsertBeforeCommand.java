@@ -2,7 +2,6 @@ package lab1.command.xml;
 
 import lab1.command.Command;
 import lab1.model.XmlEditor;
-import lab1.model.XmlNode;
 
 /**
  * XML 插入兄弟节点命令
@@ -14,7 +13,7 @@ public class InsertBeforeCommand implements Command {
     private String newId;
     private String targetId;
     private String text;
-    private XmlNode backup; // 用于 undo 的备份
+    private boolean executed;
 
     public InsertBeforeCommand(XmlEditor editor, String tagName, String newId, String targetId, String text) {
         this.editor = editor;
@@ -26,18 +25,22 @@ public class InsertBeforeCommand implements Command {
 
     @Override
     public void execute() {
-        // 备份当前 DOM 树
-        backup = editor.getRoot().clone();
-        // 执行插入
+        // 执行插入（逆操作只需删除新节点，无需备份整棵树）
         editor.insertBefore(tagName, newId, targetId, text);
+        executed = true;
         System.out.println("已在节点 " + targetId + " 前插入新节点 " + newId);
     }
 
     @Override
     public void undo() {
-        if (backup != null) {
-            editor.setRoot(backup);
+        if (executed) {
+            editor.deleteElement(newId);
             System.out.println("已撤销插入操作");
         }
     }
+
+    @Override
+    public long estimatedSize() {
+        return 64 + 2L * (tagName.length() + newId.length() + targetId.length() + (text == null ? 0 : text.length()));
+    }
 }
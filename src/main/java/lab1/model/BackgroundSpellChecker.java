@@ -0,0 +1,170 @@
+package lab1.model;
+
+import lab1.utils.SpellChecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 后台拼写检查
+ * 每次编辑后调用 schedule()：在编辑线程中取出待检查文本的快照（优先刚编辑过的区域），
+ * 交给单独的后台线程检查；新的编辑会取消（中断）尚未完成的检查并重新开始
+ * 后台线程只读取快照中的字符串，结果在下一次 query() 时由编辑线程合并进缓存，
+ * 因此文档和缓存始终只在编辑线程中访问，query() 从不等待检查完成
+ */
+public class BackgroundSpellChecker {
+    static final int MAX_SNAPSHOT_TEXTS = 2000; // 每次后台任务最多检查的行数 / 文本节点数
+
+    private final SpellChecker checker;
+    private final ExecutorService executor;
+    // 已完成、尚未合并的检查结果
+    private final Map<Editor, Completed> completed = new ConcurrentHashMap<>();
+    private Future<?> running;
+
+    public BackgroundSpellChecker(SpellChecker checker) {
+        this.checker = checker;
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "spell-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 编辑后调用：取消正在进行的检查，为该编辑器的脏行 / 脏节点启动新的后台检查
+     */
+    public synchronized void schedule(Editor editor) {
+        SpellCheckSession session = sessionOf(editor);
+        if (session == null) {
+            return;
+        }
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+        merge(editor);
+        SpellCheckSession.Snapshot snapshot = session.snapshot(MAX_SNAPSHOT_TEXTS);
+        if (snapshot.size() == 0) {
+            return;
+        }
+        running = executor.submit(() -> {
+            List<List<SpellChecker.SpellingError>> results = new ArrayList<>(snapshot.size());
+            for (String text : snapshot.texts) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return; // 已被新的编辑取消
+                }
+                results.add(checker.check(text));
+            }
+            completed.put(editor, new Completed(session, snapshot, results));
+        });
+    }
+
+    /**
+     * 查询检查结果（不阻塞）：合并已完成的结果，返回已检查部分的错误
+     * 仍有未检查的内容且后台空闲时，继续安排下一批
+     */
+    public synchronized Status query(Editor editor) {
+        SpellCheckSession session = sessionOf(editor);
+        if (session == null) {
+            return new Status(Collections.emptyList(), 0, false);
+        }
+        merge(editor);
+        int remaining = session.pendingCount();
+        if (remaining > 0 && !isBusy()) {
+            schedule(editor);
+        }
+        return new Status(session.currentErrors(), remaining, isBusy());
+    }
+
+    /**
+     * 后台是否有尚未完成的检查
+     */
+    public synchronized boolean isBusy() {
+        return running != null && !running.isDone();
+    }
+
+    /**
+     * 停止后台线程（退出程序时调用）
+     */
+    public synchronized void shutdown() {
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+        executor.shutdownNow();
+        completed.clear();
+    }
+
+    private void merge(Editor editor) {
+        Completed done = completed.remove(editor);
+        if (done != null) {
+            done.session.apply(done.snapshot, done.results);
+        }
+    }
+
+    private SpellCheckSession sessionOf(Editor editor) {
+        if (editor instanceof TextEditor) {
+            return ((TextEditor) editor).getSpellCheck(checker);
+        }
+        if (editor instanceof XmlEditor) {
+            return ((XmlEditor) editor).getSpellCheck(checker);
+        }
+        return null;
+    }
+
+    /**
+     * 一次查询的结果
+     */
+    public static final class Status {
+        private final List<SpellChecker.SpellingError> errors;
+        private final int remaining;
+        private final boolean busy;
+
+        Status(List<SpellChecker.SpellingError> errors, int remaining, boolean busy) {
+            this.errors = errors;
+            this.remaining = remaining;
+            this.busy = busy;
+        }
+
+        /**
+         * 已检查部分的错误
+         */
+        public List<SpellChecker.SpellingError> getErrors() {
+            return errors;
+        }
+
+        /**
+         * 尚未检查的行数 / 文本节点数
+         */
+        public int getRemaining() {
+            return remaining;
+        }
+
+        public boolean isBusy() {
+            return busy;
+        }
+
+        public boolean isComplete() {
+            return remaining == 0;
+        }
+    }
+
+    private static final class Completed {
+        final SpellCheckSession session;
+        final SpellCheckSession.Snapshot snapshot;
+        final List<List<SpellChecker.SpellingError>> results;
+
+        Completed(SpellCheckSession session, SpellCheckSession.Snapshot snapshot,
+                List<List<SpellChecker.SpellingError>> results) {
+            this.session = session;
+            this.snapshot = snapshot;
+            this.results = results;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package lab1.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * XmlNode 的子节点列表 - 分块存储
+ * 子节点按顺序存放在若干个容量为 CHUNK_CAPACITY 的块中，各块的元素数用树状数组（Fenwick）维护前缀和：
+ * - 按位置插入 / 删除：定位块 O(log 块数)，块内移动至多 CHUNK_CAPACITY 个元素
+ * - 子节点的位置：每个子节点记录所在的块，位置 = 前面各块的元素总数 + 块内下标，不再线性扫描整个列表
+ * 块满时一分为二，块空时移除，这两种情况才重建树状数组
+ */
+final class ChildList extends AbstractList<XmlNode> {
+    static final int CHUNK_CAPACITY = 256;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int[] tree = new int[16]; // 树状数组（下标从 1 开始），tree 覆盖各块的元素数
+    private int size;
+
+    /**
+     * 一个块：子节点通过 XmlNode.chunk 指向所在的块
+     */
+    static final class Chunk {
+        final ChildList owner;
+        final XmlNode[] items = new XmlNode[CHUNK_CAPACITY];
+        int count;
+        int index; // 在 chunks 中的下标
+
+        Chunk(ChildList owner) {
+            this.owner = owner;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public XmlNode get(int index) {
+        checkIndex(index, size);
+        int c = findChunk(index);
+        return chunks.get(c).items[index - prefix(c)];
+    }
+
+    /**
+     * 替换第 index 个子节点，新节点指向该块
+     * 被替换的节点若已不在该块中（例如 sort 把它移到别处时已更新过指针）才清除它的块指针
+     */
+    @Override
+    public XmlNode set(int index, XmlNode node) {
+        checkIndex(index, size);
+        int c = findChunk(index);
+        Chunk chunk = chunks.get(c);
+        int offset = index - prefix(c);
+        XmlNode old = chunk.items[offset];
+        chunk.items[offset] = node;
+        node.chunk = chunk;
+        if (old != node && old.chunk == chunk && !inChunk(chunk, old)) {
+            old.chunk = null;
+        }
+        return old;
+    }
+
+    private static boolean inChunk(Chunk chunk, XmlNode node) {
+        for (int i = 0; i < chunk.count; i++) {
+            if (chunk.items[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void add(int index, XmlNode node) {
+        checkIndex(index, size + 1);
+        if (index == size) {
+            append(node);
+        } else {
+            int c = findChunk(index);
+            Chunk chunk = chunks.get(c);
+            if (chunk.count == CHUNK_CAPACITY) {
+                split(c);
+                c = findChunk(index);
+                chunk = chunks.get(c);
+            }
+            int offset = index - prefix(c);
+            System.arraycopy(chunk.items, offset, chunk.items, offset + 1, chunk.count - offset);
+            chunk.items[offset] = node;
+            chunk.count++;
+            node.chunk = chunk;
+            update(c, 1);
+        }
+        size++;
+        modCount++;
+    }
+
+    private void append(XmlNode node) {
+        Chunk last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (last != null && last.count < CHUNK_CAPACITY) {
+            last.items[last.count++] = node;
+            node.chunk = last;
+            update(last.index, 1);
+            return;
+        }
+        Chunk chunk = new Chunk(this);
+        chunk.items[0] = node;
+        chunk.count = 1;
+        chunk.index = chunks.size();
+        node.chunk = chunk;
+        chunks.add(chunk);
+        appendLeaf(1);
+    }
+
+    @Override
+    public XmlNode remove(int index) {
+        checkIndex(index, size);
+        int c = findChunk(index);
+        return removeAt(chunks.get(c), index - prefix(c));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    private XmlNode removeAt(Chunk chunk, int offset) {
+        XmlNode node = chunk.items[offset];
+        System.arraycopy(chunk.items, offset + 1, chunk.items, offset, chunk.count - offset - 1);
+        chunk.items[--chunk.count] = null;
+        node.chunk = null;
+        if (chunk.count == 0) {
+            chunks.remove(chunk.index);
+            rebuild();
+        } else {
+            update(chunk.index, -1);
+        }
+        size--;
+        modCount++;
+        return node;
+    }
+
+    /**
+     * 子节点的位置：通过子节点记录的块直接定位，不扫描整个列表
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof XmlNode)) {
+            return -1;
+        }
+        Chunk chunk = ((XmlNode) o).chunk;
+        if (chunk == null || chunk.owner != this) {
+            return -1;
+        }
+        for (int i = 0; i < chunk.count; i++) {
+            if (chunk.items[i] == o) {
+                return prefix(chunk.index) + i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o); // 同一节点在列表中至多出现一次
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++) {
+                chunk.items[i].chunk = null;
+            }
+        }
+        chunks.clear();
+        rebuild();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * 按块顺序遍历，不逐个按下标定位
+     */
+    @Override
+    public Iterator<XmlNode> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int chunkIndex;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                return chunkIndex < chunks.size();
+            }
+
+            @Override
+            public XmlNode next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Chunk chunk = chunks.get(chunkIndex);
+                XmlNode node = chunk.items[offset++];
+                if (offset == chunk.count) {
+                    chunkIndex++;
+                    offset = 0;
+                }
+                return node;
+            }
+        };
+    }
+
+    // --- 分块 ---
+
+    /**
+     * 把第 c 块的后一半移到新块中
+     */
+    private void split(int c) {
+        Chunk chunk = chunks.get(c);
+        Chunk next = new Chunk(this);
+        int half = chunk.count / 2;
+        next.count = chunk.count - half;
+        System.arraycopy(chunk.items, half, next.items, 0, next.count);
+        Arrays.fill(chunk.items, half, chunk.count, null);
+        chunk.count = half;
+        for (int i = 0; i < next.count; i++) {
+            next.items[i].chunk = next;
+        }
+        chunks.add(c + 1, next);
+        rebuild();
+    }
+
+    // --- 树状数组 ---
+
+    /**
+     * 重新编号各块并重建树状数组，O(块数)
+     */
+    private void rebuild() {
+        int n = chunks.size();
+        if (tree.length < n + 1) {
+            tree = new int[Math.max(n + 1, tree.length * 2)];
+        } else {
+            Arrays.fill(tree, 0);
+        }
+        for (int i = 0; i < n; i++) {
+            Chunk chunk = chunks.get(i);
+            chunk.index = i;
+            int k = i + 1;
+            tree[k] += chunk.count;
+            int parent = k + (k & -k);
+            if (parent <= n) {
+                tree[parent] += tree[k];
+            }
+        }
+    }
+
+    /**
+     * 在末尾追加一个块（元素数为 count）后更新树状数组，O(log 块数)
+     */
+    private void appendLeaf(int count) {
+        int k = chunks.size();
+        if (k >= tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+        }
+        // tree[k] 覆盖 (k - lowbit(k), k]，其中除新块外的部分都已在前面的块中
+        tree[k] = count + prefix(k - 1) - prefix(k - (k & -k));
+    }
+
+    private void update(int c, int delta) {
+        int n = chunks.size();
+        for (int k = c + 1; k <= n; k += k & -k) {
+            tree[k] += delta;
+        }
+    }
+
+    /**
+     * 前 c 个块的元素总数
+     */
+    private int prefix(int c) {
+        int sum = 0;
+        for (int k = c; k > 0; k -= k & -k) {
+            sum += tree[k];
+        }
+        return sum;
+    }
+
+    /**
+     * 第 index 个元素所在的块
+     */
+    private int findChunk(int index) {
+        int n = chunks.size();
+        int c = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(Math.max(n, 1)); step > 0; step >>= 1) {
+            int next = c + step;
+            if (next <= n && tree[next] <= remaining) {
+                c = next;
+                remaining -= tree[next];
+            }
+        }
+        return c;
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
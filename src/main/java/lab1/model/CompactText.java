@@ -0,0 +1,219 @@
+package lab1.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑的只读文本 - 用作 PieceTable 的原始缓冲区
+ * 内容按固定长度（SEGMENT_CHARS 个字符）分段存放：段内全是 Latin-1 字符时用 byte[]（每字符 1 字节），
+ * 否则用 char[]。与单个 String 相比：
+ * - String 只要有一个非 Latin-1 字符整篇就按 UTF-16 存（每字符 2 字节），这里只影响所在的段
+ * - 加载时边读边解码，不需要先读出整个文件的 byte[] 再解码，也没有巨型数组分配
+ * 读取时同时记录每个 '\n' 的位置（行偏移表），PieceTable 无需再扫描一遍
+ */
+public final class CompactText implements CharSequence {
+    static final int SEGMENT_SHIFT = 16;
+    static final int SEGMENT_CHARS = 1 << SEGMENT_SHIFT; // 每段 64K 个字符
+    private static final int SEGMENT_MASK = SEGMENT_CHARS - 1;
+    private static final int READ_BYTES = 64 * 1024;
+
+    private final Object[] segments; // 每段为 byte[]（Latin-1）或 char[]
+    private final int length;
+    private final int[] breaks;      // 每个 '\n' 的位置（升序）
+
+    private CompactText(Object[] segments, int length, int[] breaks) {
+        this.segments = segments;
+        this.length = length;
+        this.breaks = breaks;
+    }
+
+    /**
+     * 以 UTF-8 流式读取文件
+     *
+     * @throws java.nio.charset.CharacterCodingException 文件不是合法的 UTF-8 时
+     */
+    public static CompactText read(Path path) throws IOException {
+        Builder builder = new Builder();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        ByteBuffer in = ByteBuffer.allocate(READ_BYTES);
+        // 比一段稍大：解码出的字符满一段就取出，剩余的（至多一个代理对）移到开头
+        CharBuffer out = CharBuffer.allocate(SEGMENT_CHARS + 16);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                eof = channel.read(in) < 0;
+                in.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(in, out, eof);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    builder.drain(out, false);
+                } while (result.isOverflow());
+                in.compact();
+            }
+        }
+        while (decoder.flush(out).isOverflow()) {
+            builder.drain(out, false);
+        }
+        builder.drain(out, true);
+        return builder.build();
+    }
+
+    /**
+     * 由已有的字符序列构建（复制内容）
+     */
+    public static CompactText of(CharSequence text) {
+        Builder builder = new Builder();
+        CharBuffer out = CharBuffer.allocate(SEGMENT_CHARS);
+        for (int i = 0; i < text.length(); i += SEGMENT_CHARS) {
+            int end = Math.min(text.length(), i + SEGMENT_CHARS);
+            for (int j = i; j < end; j++) {
+                out.put(text.charAt(j));
+            }
+            builder.drain(out, true);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        Object segment = segments[index >>> SEGMENT_SHIFT];
+        if (segment instanceof byte[]) {
+            return (char) (((byte[]) segment)[index & SEGMENT_MASK] & 0xFF);
+        }
+        return ((char[]) segment)[index & SEGMENT_MASK];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        appendTo(sb, start, end);
+        return sb.toString();
+    }
+
+    /**
+     * 把 [start, end) 追加到 sb（按段批量复制，比逐字符 charAt 快）
+     */
+    public void appendTo(StringBuilder sb, int start, int end) {
+        if (start < 0 || start > end || end > length) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        while (start < end) {
+            Object segment = segments[start >>> SEGMENT_SHIFT];
+            int offset = start & SEGMENT_MASK;
+            int count = Math.min(end - start, SEGMENT_CHARS - offset);
+            if (segment instanceof char[]) {
+                sb.append((char[]) segment, offset, count);
+            } else {
+                byte[] bytes = (byte[]) segment;
+                for (int i = offset; i < offset + count; i++) {
+                    sb.append((char) (bytes[i] & 0xFF));
+                }
+            }
+            start += count;
+        }
+    }
+
+    /**
+     * 每个 '\n' 的位置（升序）；返回内部数组，调用方不得修改
+     */
+    int[] lineBreaks() {
+        return breaks;
+    }
+
+    /**
+     * 内容占用的内存（字节，含数组对象头的估算）
+     */
+    public long memoryBytes() {
+        long bytes = 16 + 4L * segments.length + 16 + 4L * breaks.length;
+        for (Object segment : segments) {
+            bytes += 16 + (segment instanceof byte[] ? ((byte[]) segment).length : 2L * ((char[]) segment).length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length);
+        appendTo(sb, 0, length);
+        return sb.toString();
+    }
+
+    /**
+     * 按段收集解码出的字符，同时记录换行位置
+     */
+    private static final class Builder {
+        private final List<Object> segments = new ArrayList<>();
+        private long length;
+        private int[] breaks = new int[1024];
+        private int breakCount;
+
+        /**
+         * 取出 out 中完整的段；last 为 true 时把剩余字符作为最后一段
+         */
+        void drain(CharBuffer out, boolean last) {
+            char[] array = out.array();
+            int filled = out.position();
+            int taken = 0;
+            while (filled - taken >= SEGMENT_CHARS || (last && filled > taken)) {
+                int count = Math.min(SEGMENT_CHARS, filled - taken);
+                add(array, taken, count);
+                taken += count;
+            }
+            System.arraycopy(array, taken, array, 0, filled - taken);
+            out.position(filled - taken);
+        }
+
+        private void add(char[] chars, int from, int count) {
+            if (length + count > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("文件过大，超过单个文档支持的字符数");
+            }
+            boolean latin1 = true;
+            for (int i = from; i < from + count; i++) {
+                char c = chars[i];
+                if (c > 0xFF) {
+                    latin1 = false;
+                } else if (c == '\n') {
+                    if (breakCount == breaks.length) {
+                        breaks = Arrays.copyOf(breaks, breakCount * 2);
+                    }
+                    breaks[breakCount++] = (int) length + i - from;
+                }
+            }
+            if (latin1) {
+                byte[] bytes = new byte[count];
+                for (int i = 0; i < count; i++) {
+                    bytes[i] = (byte) chars[from + i];
+                }
+                segments.add(bytes);
+            } else {
+                segments.add(Arrays.copyOfRange(chars, from, from + count));
+            }
+            length += count;
+        }
+
+        CompactText build() {
+            return new CompactText(segments.toArray(), (int) length, Arrays.copyOf(breaks, breakCount));
+        }
+    }
+}
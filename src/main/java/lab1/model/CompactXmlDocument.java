@@ -0,0 +1,488 @@
+package lab1.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑 DOM - 大型 XML 文档的存储方式（结构数组，struct-of-arrays）
+ * 每个元素只是一个下标，结构保存在几个平行的 int 数组中：
+ * - parent / firstChild / nextSibling / prevSibling（首个子节点的 prevSibling 指向最后一个子节点，追加为 O(1)）
+ * - tag 为标签名符号表中的编号（相同标签只存一份）
+ * - id / text 为字符串池中的条目编号（UTF-8 连续存放，不为每个字符串创建对象）
+ * id 索引是开放寻址的 int 哈希表，直接比较池中的字节
+ * XmlEditor 通过 XmlNode 视图（文档 + 下标）访问节点，每个元素约 40 字节加上字符串本身
+ * 修改 id / 文本时新值追加到池中，旧值不回收；删除的子树保留在数组中（供撤销）
+ */
+public final class CompactXmlDocument {
+    static final int NONE = -1;
+    private static final int DELETED = -2; // id 表中已删除的槽位
+
+    private int[] parent = new int[16];
+    private int[] firstChild = new int[16];
+    private int[] nextSibling = new int[16];
+    private int[] prevSibling = new int[16];
+    private int[] tag = new int[16];
+    private int[] id = new int[16];
+    private int[] text = new int[16];
+    private int count;
+    private int root = NONE;
+    private int modCount; // 结构修改次数
+
+    private final List<String> tagNames = new ArrayList<>();
+    private final Map<String, Integer> tagSymbols = new HashMap<>();
+    private final StringPool strings = new StringPool();
+
+    private int[] idTable = newTable(16);
+    private int idCount; // 有效条目数
+    private int idUsed;  // 有效条目 + 已删除槽位
+
+    // --- 节点 ---
+
+    /**
+     * 创建一个未挂到树上的节点（text 为 null 表示没有文本）
+     */
+    int createNode(String tagName, String nodeId, String textContent) {
+        if (count == parent.length) {
+            grow();
+        }
+        int node = count++;
+        parent[node] = NONE;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        prevSibling[node] = NONE;
+        tag[node] = symbol(tagName);
+        id[node] = strings.add(nodeId);
+        text[node] = textContent == null ? NONE : strings.add(textContent);
+        return node;
+    }
+
+    int getRoot() {
+        return root;
+    }
+
+    void setRoot(int node) {
+        root = node;
+    }
+
+    /**
+     * 节点的视图（轻量对象，只包含文档和下标）
+     */
+    XmlNode view(int node) {
+        return node == NONE ? null : new XmlNode(this, node);
+    }
+
+    String tagName(int node) {
+        return tagNames.get(tag[node]);
+    }
+
+    String id(int node) {
+        return strings.get(id[node]);
+    }
+
+    void setId(int node, String nodeId) {
+        id[node] = strings.add(nodeId);
+    }
+
+    String text(int node) {
+        return text[node] == NONE ? null : strings.get(text[node]);
+    }
+
+    boolean hasText(int node) {
+        return text[node] != NONE;
+    }
+
+    void setText(int node, String textContent) {
+        text[node] = textContent == null ? NONE : strings.add(textContent);
+    }
+
+    int parent(int node) {
+        return parent[node];
+    }
+
+    int firstChild(int node) {
+        return firstChild[node];
+    }
+
+    int nextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    /**
+     * 前一个兄弟；第一个子节点的 prevSibling 是最后一个子节点（不是 NONE）
+     */
+    int prevSibling(int node) {
+        return prevSibling[node];
+    }
+
+    /**
+     * 结构修改（插入 / 摘下节点）的次数，子节点列表据此判断缓存的位置是否失效
+     */
+    int modCount() {
+        return modCount;
+    }
+
+    // --- 结构修改 ---
+
+    void appendChild(int p, int child) {
+        modCount++;
+        int first = firstChild[p];
+        parent[child] = p;
+        nextSibling[child] = NONE;
+        if (first == NONE) {
+            firstChild[p] = child;
+            prevSibling[child] = child;
+        } else {
+            int last = prevSibling[first];
+            nextSibling[last] = child;
+            prevSibling[child] = last;
+            prevSibling[first] = child;
+        }
+    }
+
+    /**
+     * 把 child 插到 p 的子节点 ref 之前
+     */
+    void insertBefore(int p, int child, int ref) {
+        modCount++;
+        parent[child] = p;
+        nextSibling[child] = ref;
+        prevSibling[child] = prevSibling[ref];
+        if (firstChild[p] == ref) {
+            firstChild[p] = child;
+        } else {
+            nextSibling[prevSibling[ref]] = child;
+        }
+        prevSibling[ref] = child;
+    }
+
+    /**
+     * 插到第 index 个子节点的位置（需要沿兄弟链走 index 步）
+     */
+    void insertChild(int p, int index, int child) {
+        int ref = firstChild[p];
+        for (int i = 0; i < index && ref != NONE; i++) {
+            ref = nextSibling[ref];
+        }
+        if (ref == NONE) {
+            appendChild(p, child);
+        } else {
+            insertBefore(p, child, ref);
+        }
+    }
+
+    /**
+     * 把节点（连同子树）从父节点上摘下
+     */
+    void detach(int child) {
+        int p = parent[child];
+        if (p == NONE) {
+            return;
+        }
+        modCount++;
+        int first = firstChild[p];
+        int next = nextSibling[child];
+        if (child == first) {
+            firstChild[p] = next;
+            if (next != NONE) {
+                prevSibling[next] = prevSibling[child];
+            }
+        } else {
+            int prev = prevSibling[child];
+            nextSibling[prev] = next;
+            if (next == NONE) {
+                prevSibling[first] = prev; // 删除的是最后一个子节点
+            } else {
+                prevSibling[next] = prev;
+            }
+        }
+        parent[child] = NONE;
+        nextSibling[child] = NONE;
+        prevSibling[child] = NONE;
+    }
+
+    /**
+     * child 在 p 的子节点中的位置，不是子节点时返回 -1
+     */
+    int childIndex(int p, int child) {
+        if (child == NONE || parent[child] != p) {
+            return -1;
+        }
+        int index = 0;
+        for (int c = firstChild[p]; c != child; c = nextSibling[c]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 先序遍历中 node 之后的下一个节点，不超出以 subtreeRoot 为根的子树（不使用递归和栈）
+     */
+    int nextInSubtree(int node, int subtreeRoot) {
+        if (firstChild[node] != NONE) {
+            return firstChild[node];
+        }
+        while (node != subtreeRoot) {
+            if (nextSibling[node] != NONE) {
+                return nextSibling[node];
+            }
+            node = parent[node];
+        }
+        return NONE;
+    }
+
+    // --- id 索引 ---
+
+    /**
+     * 按 id 查找已索引的节点
+     */
+    int findById(String nodeId) {
+        byte[] key = nodeId.getBytes(StandardCharsets.UTF_8);
+        int mask = idTable.length - 1;
+        for (int slot = StringPool.hash(key, 0, key.length) & mask;; slot = (slot + 1) & mask) {
+            int node = idTable[slot];
+            if (node == NONE) {
+                return NONE;
+            }
+            if (node != DELETED && strings.equalsBytes(id[node], key)) {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * 把子树中所有节点的 id 加入索引；有重复 id 时抛出异常且不修改索引
+     */
+    void indexSubtree(int subtreeRoot) {
+        int added = 0;
+        for (int node = subtreeRoot; node != NONE; node = nextInSubtree(node, subtreeRoot)) {
+            if (!indexId(node)) {
+                String duplicate = id(node);
+                // 撤销本次已加入的部分
+                for (int n = subtreeRoot; added > 0; n = nextInSubtree(n, subtreeRoot), added--) {
+                    unindexId(id[n]);
+                }
+                throw new IllegalArgumentException("ID 已存在: " + duplicate);
+            }
+            added++;
+        }
+    }
+
+    /**
+     * 清空索引后为整棵子树重建；有重复 id 时保留原索引并抛出异常
+     */
+    void reindex(int subtreeRoot) {
+        int[] oldTable = idTable;
+        int oldCount = idCount;
+        int oldUsed = idUsed;
+        idTable = newTable(16);
+        idCount = 0;
+        idUsed = 0;
+        try {
+            indexSubtree(subtreeRoot);
+        } catch (IllegalArgumentException e) {
+            idTable = oldTable;
+            idCount = oldCount;
+            idUsed = oldUsed;
+            throw e;
+        }
+    }
+
+    void unindexSubtree(int subtreeRoot) {
+        for (int node = subtreeRoot; node != NONE; node = nextInSubtree(node, subtreeRoot)) {
+            unindexId(id[node]);
+        }
+    }
+
+    /**
+     * 加入单个节点的 id，已存在时返回 false
+     */
+    boolean indexId(int node) {
+        if ((idUsed + 1) * 4 > idTable.length * 3) {
+            rehash(idCount * 2 >= idTable.length / 2 ? idTable.length * 2 : idTable.length);
+        }
+        int entry = id[node];
+        int mask = idTable.length - 1;
+        int target = NONE;
+        for (int slot = strings.hash(entry) & mask;; slot = (slot + 1) & mask) {
+            int existing = idTable[slot];
+            if (existing == NONE) {
+                if (target == NONE) {
+                    target = slot;
+                    idUsed++;
+                }
+                break;
+            }
+            if (existing == DELETED) {
+                if (target == NONE) {
+                    target = slot;
+                }
+            } else if (strings.sameBytes(id[existing], entry)) {
+                return false;
+            }
+        }
+        idTable[target] = node;
+        idCount++;
+        return true;
+    }
+
+    /**
+     * 按 id（池中的条目）移除索引项
+     */
+    void unindexId(int entry) {
+        int mask = idTable.length - 1;
+        for (int slot = strings.hash(entry) & mask;; slot = (slot + 1) & mask) {
+            int node = idTable[slot];
+            if (node == NONE) {
+                return;
+            }
+            if (node != DELETED && strings.sameBytes(id[node], entry)) {
+                idTable[slot] = DELETED;
+                idCount--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 节点 node 的当前 id 在池中的条目（修改 id 前用于移除索引）
+     */
+    int idEntry(int node) {
+        return id[node];
+    }
+
+    private void rehash(int capacity) {
+        int[] old = idTable;
+        idTable = newTable(capacity);
+        idCount = 0;
+        idUsed = 0;
+        for (int node : old) {
+            if (node >= 0) {
+                indexId(node);
+            }
+        }
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, NONE);
+        return table;
+    }
+
+    // --- 统计 ---
+
+    /**
+     * 已分配的节点数（含已删除但保留用于撤销的节点）
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 占用的内存（字节，按数组长度估算）
+     */
+    public long memoryBytes() {
+        return 7L * Integer.BYTES * parent.length + (long) Integer.BYTES * idTable.length + strings.memoryBytes();
+    }
+
+    /**
+     * 加载完成后释放数组的多余容量
+     */
+    void trimToSize() {
+        resize(count);
+        strings.trimToSize();
+    }
+
+    private void grow() {
+        resize(Math.max(16, parent.length + (parent.length >> 1)));
+    }
+
+    private void resize(int capacity) {
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        prevSibling = Arrays.copyOf(prevSibling, capacity);
+        tag = Arrays.copyOf(tag, capacity);
+        id = Arrays.copyOf(id, capacity);
+        text = Arrays.copyOf(text, capacity);
+    }
+
+    private int symbol(String tagName) {
+        Integer symbol = tagSymbols.get(tagName);
+        if (symbol == null) {
+            symbol = tagNames.size();
+            tagNames.add(tagName);
+            tagSymbols.put(tagName, symbol);
+        }
+        return symbol;
+    }
+
+    /**
+     * 字符串池：所有字符串以 UTF-8 依次存放在一个 byte[] 中，条目 i 为 [starts[i], starts[i + 1])
+     */
+    private static final class StringPool {
+        private byte[] data = new byte[1024];
+        private int length;
+        private int[] starts = new int[64];
+        private int count;
+
+        int add(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (length + bytes.length < 0) {
+                throw new IllegalStateException("字符串池超过 2GB");
+            }
+            if (length + bytes.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(length + bytes.length, data.length + (data.length >> 1)));
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, Math.max(count + 1, starts.length + (starts.length >> 1)));
+            }
+            System.arraycopy(bytes, 0, data, length, bytes.length);
+            starts[count] = length;
+            length += bytes.length;
+            return count++;
+        }
+
+        String get(int entry) {
+            int start = starts[entry];
+            return new String(data, start, end(entry) - start, StandardCharsets.UTF_8);
+        }
+
+        boolean equalsBytes(int entry, byte[] key) {
+            int start = starts[entry];
+            return Arrays.equals(data, start, end(entry), key, 0, key.length);
+        }
+
+        boolean sameBytes(int a, int b) {
+            return a == b || Arrays.equals(data, starts[a], end(a), data, starts[b], end(b));
+        }
+
+        int hash(int entry) {
+            return hash(data, starts[entry], end(entry));
+        }
+
+        private int end(int entry) {
+            return entry + 1 < count ? starts[entry + 1] : length;
+        }
+
+        static int hash(byte[] bytes, int from, int to) {
+            int h = 0x811C9DC5; // FNV-1a
+            for (int i = from; i < to; i++) {
+                h = (h ^ bytes[i]) * 0x01000193;
+            }
+            return h ^ (h >>> 16);
+        }
+
+        long memoryBytes() {
+            return data.length + (long) Integer.BYTES * starts.length;
+        }
+
+        void trimToSize() {
+            data = Arrays.copyOf(data, length);
+            starts = Arrays.copyOf(starts, count);
+        }
+    }
+}
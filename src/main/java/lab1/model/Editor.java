@@ -1,5 +1,8 @@
 package lab1.model;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * 编辑器通用接口 - 多态设计的基础
  * TextEditor 和 XmlEditor 都实现此接口
@@ -15,6 +18,11 @@ public interface Editor {
      */
     void setContent(String content);
 
+    /**
+     * 将内容以 UTF-8 流式写入通道（保存时使用，不生成完整字符串）
+     */
+    void writeTo(WritableByteChannel channel) throws IOException;
+
     /**
      * 检查编辑器内容是否被修改
      */
@@ -25,6 +33,13 @@ public interface Editor {
      */
     void setModified(boolean modified);
 
+    /**
+     * 是否为只读（只读的文件不能编辑，保存时跳过）
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+
     /**
      * 获取编辑器类型（用于区分不同编辑器）
      */
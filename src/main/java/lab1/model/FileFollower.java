@@ -0,0 +1,91 @@
+package lab1.model;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 跟随模式（类似 tail -f）：定期检查只读查看的文件是否增长，只输出新追加的完整行
+ * 每次刷新只映射、扫描新追加的字节（MappedFileViewer.refresh），
+ * 再从上次输出到的偏移读取到最后一个换行符为止，开销与追加的字节数成正比，与文件大小无关
+ */
+public class FileFollower {
+    public static final long DEFAULT_INTERVAL_MILLIS = 500;
+
+    private final MappedFileViewer viewer;
+    private long offset; // 下一条尚未输出的行的行首
+    private Thread thread;
+
+    /**
+     * 从当前文件末尾开始跟随；末尾尚未写完的行在写完后输出
+     */
+    public FileFollower(MappedFileViewer viewer) {
+        this.viewer = viewer;
+        this.offset = viewer.lineStartAt(viewer.getSize());
+    }
+
+    /**
+     * 检查一次文件增长，返回上次调用以来新写完的行
+     * 初始行索引尚未建完时返回空列表，新行会在之后的调用中返回
+     */
+    public synchronized List<String> poll() throws IOException {
+        viewer.refresh();
+        if (!viewer.isIndexComplete()) {
+            return Collections.emptyList();
+        }
+        long end = viewer.getCompleteLinesEnd();
+        if (end <= offset) {
+            return Collections.emptyList();
+        }
+        List<String> lines = viewer.readRange(offset, end);
+        offset = end;
+        return lines;
+    }
+
+    /**
+     * 启动后台线程，每隔 intervalMillis 检查一次，新行交给 output 输出
+     */
+    public synchronized void start(Consumer<String> output, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("检查间隔必须为正数: " + intervalMillis);
+        }
+        if (thread != null) {
+            throw new IllegalStateException("跟随模式已启动");
+        }
+        thread = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (String line : poll()) {
+                        output.accept(line);
+                    }
+                    Thread.sleep(intervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // 被 stop() 停止
+            } catch (IOException e) {
+                output.accept("跟随模式已停止: " + e.getMessage());
+            }
+        }, "follow");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 停止后台线程
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null && thread.isAlive();
+    }
+
+    public MappedFileViewer getViewer() {
+        return viewer;
+    }
+}
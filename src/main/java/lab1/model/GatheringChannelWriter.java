@@ -0,0 +1,113 @@
+package lab1.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 将字符片段编码为 UTF-8 并用聚集写（gathering write）写入通道
+ * 只使用固定数量的编码缓冲区，内存占用与文档大小无关
+ */
+class GatheringChannelWriter {
+    private static final int BUFFER_COUNT = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer[] buffers = new ByteBuffer[BUFFER_COUNT];
+    private int current;
+    // 片段边界可能把代理对拆开，未编码的高位代理暂存在这里
+    private final CharBuffer carry = CharBuffer.allocate(2);
+    private long bytesWritten;
+
+    GatheringChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            buffers[i] = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * 写入 source 的 [start, end) 区间
+     */
+    void write(CharSequence source, int start, int end) throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (carry.position() > 0) {
+            carry.put(source.charAt(start++));
+            carry.flip();
+            encode(carry, false);
+            carry.compact();
+        }
+        CharBuffer in = CharBuffer.wrap(source, start, end);
+        encode(in, false);
+        if (in.hasRemaining()) {
+            carry.put(in.get());
+        }
+    }
+
+    /**
+     * 编码剩余内容并把所有缓冲区写出
+     */
+    long finish() throws IOException {
+        carry.flip();
+        encode(carry, true);
+        while (encoder.flush(buffers[current]) == CoderResult.OVERFLOW) {
+            nextBuffer();
+        }
+        drain();
+        return bytesWritten;
+    }
+
+    private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(in, buffers[current], endOfInput);
+            if (result.isOverflow()) {
+                nextBuffer();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void nextBuffer() throws IOException {
+        if (++current == BUFFER_COUNT) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        int count = Math.min(current + 1, BUFFER_COUNT);
+        long remaining = 0;
+        for (int i = 0; i < count; i++) {
+            buffers[i].flip();
+            remaining += buffers[i].remaining();
+        }
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gathering = (GatheringByteChannel) channel;
+            while (remaining > 0) {
+                long n = gathering.write(buffers, 0, count);
+                remaining -= n;
+                bytesWritten += n;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                while (buffers[i].hasRemaining()) {
+                    bytesWritten += channel.write(buffers[i]);
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            buffers[i].clear();
+        }
+        current = 0;
+    }
+}
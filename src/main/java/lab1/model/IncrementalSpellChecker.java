@@ -0,0 +1,171 @@
+package lab1.model;
+
+import lab1.utils.SpellChecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 文本文件的增量拼写检查
+ * 按行缓存检查结果，监听 TextEditor 的行变化把受影响的行标记为脏（缓存置 null），
+ * 再次检查时只重新分词脏行，其余行直接复用上次的结果
+ */
+public class IncrementalSpellChecker implements TextEditor.LineChangeListener, SpellCheckSession {
+    private final TextEditor editor;
+    private final SpellChecker checker;
+    private final ParallelSpellChecker parallel;
+    // 每行的检查结果（位置为行内偏移，不含行号，行号变化时无需更新）；null 表示脏行
+    private final List<List<SpellChecker.SpellingError>> lineResults = new ArrayList<>();
+    private int lastCheckedLines;
+    private long version;        // 每次行变化加一，用于丢弃过期的后台检查结果
+    private int lastChangedLine; // 最近一次变化的起始行，后台检查从这里向两侧展开
+
+    public IncrementalSpellChecker(TextEditor editor, SpellChecker checker) {
+        this.editor = editor;
+        this.checker = checker;
+        this.parallel = new ParallelSpellChecker(checker);
+        lineResults.addAll(Collections.nCopies(editor.getBuffer().lineCount(), null));
+        editor.addLineChangeListener(this);
+    }
+
+    /**
+     * 检查整个文档：只重新检查脏行，返回所有行的错误（按行、列排序）
+     */
+    public List<SpellChecker.SpellingError> check() {
+        TextBuffer buffer = editor.getBuffer();
+        int[] dirty = new int[lineResults.size()];
+        int count = 0;
+        for (int i = 0; i < lineResults.size(); i++) {
+            if (lineResults.get(i) == null) {
+                dirty[count++] = i;
+            }
+        }
+
+        if (count >= ParallelSpellChecker.TEXTS_PER_TASK) {
+            // 脏行较多（如首次检查）时按行区间并行检查
+            List<List<SpellChecker.SpellingError>> results = parallel.checkLines(buffer, dirty, count);
+            for (int k = 0; k < count; k++) {
+                lineResults.set(dirty[k], results.get(k));
+            }
+        } else {
+            for (int k = 0; k < count; k++) {
+                List<SpellChecker.SpellingError> result = checker.check(buffer.getLine(dirty[k]));
+                lineResults.set(dirty[k], result.isEmpty() ? Collections.emptyList() : result);
+            }
+        }
+        lastCheckedLines = count;
+
+        List<SpellChecker.SpellingError> errors = new ArrayList<>();
+        for (int i = 0; i < lineResults.size(); i++) {
+            for (SpellChecker.SpellingError error : lineResults.get(i)) {
+                errors.add(error.atLine(i + 1));
+            }
+        }
+        return errors;
+    }
+
+    public SpellChecker getChecker() {
+        return checker;
+    }
+
+    /**
+     * 上一次 check() 实际重新检查的行数
+     */
+    public int getLastCheckedLines() {
+        return lastCheckedLines;
+    }
+
+    /**
+     * 当前的脏行数
+     */
+    public int getDirtyLines() {
+        int dirty = 0;
+        for (List<SpellChecker.SpellingError> result : lineResults) {
+            if (result == null) {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+
+    @Override
+    public Snapshot snapshot(int limit) {
+        TextBuffer buffer = editor.getBuffer();
+        int size = lineResults.size();
+        int[] lines = new int[Math.min(limit, size)];
+        int count = 0;
+        int start = Math.min(lastChangedLine, Math.max(size - 1, 0));
+        // 先查刚编辑过的区域：从 lastChangedLine 开始交替向下、向上收集脏行
+        for (int d = 0; count < lines.length && (start + d < size || start - d - 1 >= 0); d++) {
+            int below = start + d;
+            if (below < size && lineResults.get(below) == null) {
+                lines[count++] = below;
+            }
+            int above = start - d - 1;
+            if (count < lines.length && above >= 0 && lineResults.get(above) == null) {
+                lines[count++] = above;
+            }
+        }
+        Object[] keys = new Object[count];
+        String[] texts = new String[count];
+        for (int k = 0; k < count; k++) {
+            keys[k] = lines[k];
+            texts[k] = buffer.getLine(lines[k]);
+        }
+        return new Snapshot(version, keys, texts);
+    }
+
+    @Override
+    public void apply(Snapshot snapshot, List<List<SpellChecker.SpellingError>> results) {
+        if (snapshot.version != version) {
+            return; // 快照之后行号可能已经移动，整批丢弃，由下一次快照重新检查
+        }
+        for (int k = 0; k < results.size(); k++) {
+            List<SpellChecker.SpellingError> result = results.get(k);
+            lineResults.set((Integer) snapshot.keys[k], result.isEmpty() ? Collections.emptyList() : result);
+        }
+    }
+
+    @Override
+    public List<SpellChecker.SpellingError> currentErrors() {
+        List<SpellChecker.SpellingError> errors = new ArrayList<>();
+        for (int i = 0; i < lineResults.size(); i++) {
+            List<SpellChecker.SpellingError> result = lineResults.get(i);
+            if (result != null) {
+                for (SpellChecker.SpellingError error : result) {
+                    errors.add(error.atLine(i + 1));
+                }
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public int pendingCount() {
+        return getDirtyLines();
+    }
+
+    /**
+     * 停止监听编辑器（不再使用时调用）
+     */
+    public void detach() {
+        editor.removeLineChangeListener(this);
+    }
+
+    @Override
+    public void linesChanged(int startLine, int removed, int inserted) {
+        // 行数不变（最常见的行内编辑）时只把这些行标脏；否则只为行数差做一次插入或删除，后面的行只移动一次
+        int common = Math.min(removed, inserted);
+        for (int i = startLine; i < startLine + common; i++) {
+            lineResults.set(i, null);
+        }
+        if (inserted > removed) {
+            lineResults.addAll(startLine + common, Collections.nCopies(inserted - removed, null));
+        } else if (removed > inserted) {
+            lineResults.subList(startLine + common, startLine + removed).clear();
+        }
+        version++;
+        lastChangedLine = startLine;
+    }
+}
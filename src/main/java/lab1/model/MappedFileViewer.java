@@ -0,0 +1,358 @@
+package lab1.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 只读查看器 - 用于查看超大的日志文件
+ * 文件按段内存映射（不读入堆），后台线程扫描换行符建立稀疏行索引：
+ * 每 CHECKPOINT_INTERVAL 行记录一次行首偏移（long[]），读取某行时从最近的检查点向后扫描
+ * 索引尚未建完时也能读取：超出已索引范围的行从最后一个检查点继续扫描
+ * 文件仍在增长时，refresh() 只映射并扫描新追加的部分，从上次的偏移继续扩展索引
+ */
+public class MappedFileViewer implements Editor {
+    public static final int CHECKPOINT_INTERVAL = 1024; // 每隔多少行记录一次行首偏移
+    static final int MAX_LINE_BYTES = 1 << 20;          // 单行最多显示的字节数（防止无换行的文件生成巨大字符串）
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 30; // 每段映射 1GB（单个映射不能超过 2GB）
+    private static final int BLOCK_BYTES = 64 * 1024;       // 索引线程每次扫描的块大小，扫描完一块发布一次进度
+
+    private final Path path;
+    private final int chunkShift;
+    // 文件增长时替换为新数组：先写 chunks 再写 size，读取方先读 size 再读 chunks
+    private volatile MappedByteBuffer[] chunks;
+    private volatile long size;
+
+    // checkpoints[k] 为第 k * CHECKPOINT_INTERVAL 行（从 0 开始）的行首偏移；
+    // 索引线程先写入元素再增加 checkpointCount，读取方先读 count 再读数组
+    private volatile long[] checkpoints = new long[16];
+    private volatile int checkpointCount;
+    private volatile long indexedBytes;   // 已扫描的字节数
+    private volatile long completeLines;  // 已扫描部分中以换行符结尾的行数
+    private volatile long lastLineStart;  // 已扫描部分中最后一行的行首（即完整行的结束位置）
+    private volatile boolean indexComplete;
+    private final Thread indexer;
+
+    public MappedFileViewer(Path path) throws IOException {
+        this(path, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @param chunkBytes 每段映射的字节数，必须是 2 的幂
+     */
+    public MappedFileViewer(Path path, int chunkBytes) throws IOException {
+        if (chunkBytes <= 0 || Integer.bitCount(chunkBytes) != 1) {
+            throw new IllegalArgumentException("映射段大小必须是 2 的幂: " + chunkBytes);
+        }
+        this.path = path;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkBytes);
+        this.chunks = new MappedByteBuffer[0];
+        map(0);
+        checkpoints[0] = 0;
+        checkpointCount = 1;
+        indexer = new Thread(() -> {
+            if (scan(0, size)) {
+                indexComplete = true;
+            }
+        }, "line-index");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * 映射 [from, 文件末尾)：from 所在的不完整映射段重新映射，之后的段新建
+     * 映射建立后即可关闭通道，映射在缓冲区被回收前一直有效
+     */
+    private void map(long from) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long newSize = channel.size();
+            int first = (int) (from >>> chunkShift);
+            long chunkBytes = 1L << chunkShift;
+            int count = (int) ((newSize + chunkBytes - 1) >>> chunkShift);
+            MappedByteBuffer[] mapped = Arrays.copyOf(chunks, count);
+            for (int i = first; i < count; i++) {
+                long offset = (long) i << chunkShift;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(chunkBytes, newSize - offset));
+            }
+            chunks = mapped;
+            size = newSize;
+        }
+    }
+
+    // --- 行索引 ---
+
+    /**
+     * 扫描 [from, to) 中的换行符，扩展行索引；被中断时返回 false
+     */
+    private boolean scan(long from, long to) {
+        byte[] block = new byte[(int) Math.min(BLOCK_BYTES, Math.max(to - from, 1))];
+        long lines = completeLines;
+        long pos = from;
+        while (pos < to) {
+            // 按块批量复制出映射内容再扫描，比逐字节 get 快得多；块不跨越映射段
+            MappedByteBuffer chunk = chunks[(int) (pos >>> chunkShift)];
+            int offset = (int) (pos & ((1L << chunkShift) - 1));
+            int length = (int) Math.min(Math.min(block.length, chunk.limit() - offset), to - pos);
+            chunk.get(offset, block, 0, length);
+            long lineStart = -1;
+            for (int i = 0; i < length; i++) {
+                if (block[i] == '\n') {
+                    lines++;
+                    lineStart = pos + i + 1;
+                    if (lines % CHECKPOINT_INTERVAL == 0) {
+                        addCheckpoint(lineStart);
+                    }
+                }
+            }
+            pos += length;
+            if (lineStart >= 0) {
+                lastLineStart = lineStart;
+            }
+            completeLines = lines;
+            indexedBytes = pos;
+            if (Thread.currentThread().isInterrupted()) {
+                return false; // 查看器已关闭
+            }
+        }
+        return true;
+    }
+
+    private void addCheckpoint(long offset) {
+        long[] array = checkpoints;
+        int count = checkpointCount;
+        if (count == array.length) {
+            array = Arrays.copyOf(array, count * 2);
+        }
+        array[count] = offset;
+        checkpoints = array;
+        checkpointCount = count + 1;
+    }
+
+    /**
+     * 检查文件是否增长：只映射新追加的字节，从已扫描的偏移（indexedBytes）继续扩展行索引
+     * 扫描被中断（follow stop）时已映射的尾部尚未扫描，下次刷新从 indexedBytes 补上，而不是从 size 开始
+     * 初始索引尚未建完时不做处理（由索引线程扫描到当时的文件末尾，之后再刷新）
+     *
+     * @return 新追加的字节数
+     * @throws IOException 文件变小（被截断或轮转）时
+     */
+    public synchronized long refresh() throws IOException {
+        if (!indexComplete) {
+            return 0;
+        }
+        long oldSize = size;
+        long newSize = Files.size(path);
+        if (newSize < oldSize) {
+            throw new IOException("文件已被截断或替换，请重新打开: " + path);
+        }
+        if (newSize > oldSize) {
+            map(oldSize);
+        }
+        if (indexedBytes < size) {
+            scan(indexedBytes, size);
+        }
+        return size - oldSize;
+    }
+
+    /**
+     * 等待行索引建立完成
+     *
+     * @return 超时前是否已完成
+     */
+    public boolean awaitIndex(long timeoutMillis) throws InterruptedException {
+        indexer.join(timeoutMillis);
+        return indexComplete;
+    }
+
+    public boolean isIndexComplete() {
+        return indexComplete;
+    }
+
+    /**
+     * 行数（最后一行没有换行符时也算一行）；索引未完成时为目前已扫描到的行数
+     */
+    public long getLineCount() {
+        long start = lastLineStart;
+        return completeLines + (indexedBytes > start ? 1 : 0);
+    }
+
+    /**
+     * 已扫描部分中完整行（以换行符结尾）的结束偏移；之后是尚未写完的最后一行
+     */
+    public long getCompleteLinesEnd() {
+        return lastLineStart;
+    }
+
+    /**
+     * 已建立索引的字节数
+     */
+    public long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 行索引占用的内存（字节）
+     */
+    public long indexMemoryBytes() {
+        return (long) checkpoints.length * Long.BYTES;
+    }
+
+    // --- 读取 ---
+
+    /**
+     * 读取从第 from 行（从 1 开始）起的至多 count 行，文件结束时提前返回
+     */
+    public List<String> readLines(long from, int count) {
+        if (from < 1) {
+            throw new IllegalArgumentException("行号必须从 1 开始: " + from);
+        }
+        long limit = size;
+        List<String> lines = new ArrayList<>(Math.min(count, CHECKPOINT_INTERVAL));
+        long pos = lineStart(from - 1, limit);
+        while (pos >= 0 && pos < limit && lines.size() < count) {
+            long end = nextNewline(pos, limit);
+            lines.add(decode(pos, end));
+            pos = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * 读取字节区间 [start, end) 中的所有行；start 必须是行首，end 必须是行尾之后的位置
+     * （跟随模式用它只读取新追加的部分）
+     */
+    public List<String> readRange(long start, long end) {
+        if (start < 0 || start > end || end > size) {
+            throw new IllegalArgumentException("无效的区间: [" + start + ", " + end + ")");
+        }
+        List<String> lines = new ArrayList<>();
+        for (long pos = start; pos < end;) {
+            long lineEnd = nextNewline(pos, end);
+            lines.add(decode(pos, lineEnd));
+            pos = lineEnd + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * 包含字节 pos 的行的行首（向前找到上一个换行符，开销与行长成正比）
+     * pos 为文件末尾且文件以换行符结尾时返回 pos
+     */
+    public long lineStartAt(long pos) {
+        if (pos < 0 || pos > size) {
+            throw new IllegalArgumentException("无效的偏移: " + pos);
+        }
+        while (pos > 0 && byteAt(pos - 1) != '\n') {
+            pos--;
+        }
+        return pos;
+    }
+
+    /**
+     * 第 line 行（从 0 开始）的行首偏移，超出文件末尾时返回 -1
+     */
+    private long lineStart(long line, long limit) {
+        int count = checkpointCount;
+        long[] array = checkpoints;
+        int k = (int) Math.min(line / CHECKPOINT_INTERVAL, count - 1);
+        long pos = array[k];
+        for (long skip = line - (long) k * CHECKPOINT_INTERVAL; skip > 0; skip--) {
+            pos = nextNewline(pos, limit) + 1;
+            if (pos >= limit) {
+                return -1;
+            }
+        }
+        return pos;
+    }
+
+    private long nextNewline(long pos, long limit) {
+        while (pos < limit && byteAt(pos) != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private String decode(long start, long end) {
+        if (end > start && byteAt(end - 1) == '\r') {
+            end--; // CRLF 换行
+        }
+        boolean truncated = end - start > MAX_LINE_BYTES;
+        int length = (int) Math.min(end - start, MAX_LINE_BYTES);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = byteAt(start + i);
+        }
+        String line = new String(bytes, StandardCharsets.UTF_8);
+        return truncated ? line + " ...(已截断)" : line;
+    }
+
+    private byte byteAt(long pos) {
+        return chunks[(int) (pos >>> chunkShift)].get((int) (pos & ((1L << chunkShift) - 1)));
+    }
+
+    /**
+     * 关闭查看器：停止建立索引
+     */
+    public void close() {
+        indexer.interrupt();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // --- Editor 接口 ---
+
+    @Override
+    public String getContent() {
+        throw new IllegalStateException("只读查看模式不支持读取全文，请使用 show <start:end>");
+    }
+
+    @Override
+    public void setContent(String content) {
+        throw new IllegalStateException("只读查看模式不能修改内容");
+    }
+
+    @Override
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        for (MappedByteBuffer chunk : chunks) {
+            ByteBuffer source = chunk.duplicate();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    @Override
+    public boolean isModified() {
+        return false;
+    }
+
+    @Override
+    public void setModified(boolean modified) {
+        // 内容不可修改，始终为未修改
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public String getEditorType() {
+        return "viewer";
+    }
+}
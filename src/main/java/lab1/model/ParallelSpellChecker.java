@@ -0,0 +1,184 @@
+package lab1.model;
+
+import lab1.utils.SpellChecker;
+import lab1.utils.SpellChecker.SpellingError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * 并行拼写检查 - Fork/Join
+ * 文本文件按行区间、XML 文件按文本节点区间递归拆分成子任务（二者都是一组独立的文本段），
+ * 子任务的结果按原顺序拼接，因此输出与串行检查完全相同
+ * 检查器和文档在检查期间只读：DictionarySpellChecker 无锁，PieceTable 的读操作不修改结构
+ */
+public class ParallelSpellChecker {
+    static final int TEXTS_PER_TASK = 256; // 每个叶子任务检查的行数 / 文本节点数
+
+    private final SpellChecker checker;
+    private final ForkJoinPool pool;
+
+    public ParallelSpellChecker(SpellChecker checker) {
+        this(checker, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSpellChecker(SpellChecker checker, ForkJoinPool pool) {
+        this.checker = checker;
+        this.pool = pool;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 检查文本文件的所有行，错误位置为 行:列
+     */
+    public List<SpellingError> checkText(TextEditor editor) {
+        TextBuffer buffer = editor.getBuffer();
+        int[] lines = new int[buffer.lineCount()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = i;
+        }
+        List<List<SpellingError>> results = checkLines(buffer, lines, lines.length);
+        List<SpellingError> errors = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            for (SpellingError error : results.get(i)) {
+                errors.add(error.atLine(i + 1));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * 并行检查指定的行（lines[0, count)），返回每行的检查结果（位置为行内偏移）
+     */
+    List<List<SpellingError>> checkLines(TextBuffer buffer, int[] lines, int count) {
+        return checkRange(count, i -> buffer.getLine(lines[i]));
+    }
+
+    /**
+     * 并行检查一组文本（如 XML 文本节点），返回每段文本的检查结果
+     */
+    List<List<SpellingError>> checkTexts(List<String> texts) {
+        return checkRange(texts.size(), texts::get);
+    }
+
+    /**
+     * 检查 XML 文件的所有文本节点，错误位置为（元素 id, 节点内偏移）
+     */
+    public List<SpellingError> checkXml(XmlEditor editor) {
+        List<XmlNode> nodes = new ArrayList<>();
+        editor.forEachText(nodes::add);
+        List<String> texts = new ArrayList<>(nodes.size());
+        for (XmlNode node : nodes) {
+            texts.add(node.getTextContent());
+        }
+        List<List<SpellingError>> results = checkTexts(texts);
+        List<SpellingError> errors = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            for (SpellingError error : results.get(i)) {
+                errors.add(error.inElement(nodes.get(i).getId()));
+            }
+        }
+        return errors;
+    }
+
+    private List<List<SpellingError>> checkRange(int count, IntFunction<String> source) {
+        // 预先填满，子任务只 set 各自不相交的下标（不做结构修改，结果在 join 后可见）
+        List<List<SpellingError>> results = new ArrayList<>(Collections.nCopies(count, null));
+        run(new CheckTask(source, results, 0, count));
+        return results;
+    }
+
+    /**
+     * 同时检查多个文件，每个文件一个子任务（文件内部再继续拆分）
+     * 结果按传入 Map 的迭代顺序排列
+     */
+    public Map<String, List<SpellingError>> checkAll(Map<String, Editor> editors) {
+        List<String> names = new ArrayList<>(editors.keySet());
+        List<ForkJoinTask<List<SpellingError>>> tasks = new ArrayList<>();
+        for (String name : names) {
+            Editor editor = editors.get(name);
+            tasks.add(ForkJoinTask.adapt(() -> check(editor)));
+        }
+        run(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+
+        Map<String, List<SpellingError>> results = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            results.put(names.get(i), tasks.get(i).join());
+        }
+        return results;
+    }
+
+    /**
+     * 检查单个文件：复用按行 / 按节点的缓存，只重新检查改动过的部分
+     */
+    private List<SpellingError> check(Editor editor) {
+        if (editor instanceof TextEditor) {
+            return ((TextEditor) editor).getSpellCheck(checker).check();
+        }
+        if (editor instanceof XmlEditor) {
+            return ((XmlEditor) editor).getSpellCheck(checker).check();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 已在本线程池的工作线程中时直接执行（子任务会 fork 到同一个池），否则提交到池中
+     */
+    private <T> T run(ForkJoinTask<T> task) {
+        if (ForkJoinTask.getPool() == pool) {
+            return task.invoke();
+        }
+        return pool.invoke(task);
+    }
+
+    // --- 子任务 ---
+
+    /**
+     * 检查 source 的第 [from, to) 段文本，结果写入 results 的对应位置
+     */
+    private class CheckTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntFunction<String> source;
+        private final List<List<SpellingError>> results;
+        private final int from;
+        private final int to;
+
+        CheckTask(IntFunction<String> source, List<List<SpellingError>> results, int from, int to) {
+            this.source = source;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TEXTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    List<SpellingError> found = checker.check(source.apply(i));
+                    results.set(i, found.isEmpty() ? Collections.emptyList() : found);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CheckTask(source, results, from, mid), new CheckTask(source, results, mid, to));
+        }
+    }
+}
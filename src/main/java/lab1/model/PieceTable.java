@@ -0,0 +1,465 @@
+package lab1.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Piece Table 文本存储引擎
+ * - 原始缓冲区：加载时的文件内容，只读且从不复制
+ * - 追加缓冲区：所有插入的文本只追加到这里
+ * - 片段索引：按文档顺序排列的片段，用 Treap（随机平衡树）组织，
+ *   每个节点维护子树的字符数和换行数，因此按偏移/按行定位都是 O(log 片段数)
+ */
+public class PieceTable implements TextBuffer {
+    private CharSequence original;
+    private int[] originalBreaks; // 原始缓冲区中每个 '\n' 的位置（升序）
+
+    private final StringBuilder added = new StringBuilder();
+    private int[] addedBreaks = new int[16]; // 追加缓冲区中每个 '\n' 的位置（升序）
+    private int addedBreakCount;
+
+    private Piece root;
+    private boolean hasLines; // 区分 "0 行" 与 "1 个空行"，两者的字符数都是 0
+    private int seed = 0x2545F491;
+
+    public PieceTable() {
+        this("");
+    }
+
+    public PieceTable(String content) {
+        setText(content);
+    }
+
+    // --- TextBuffer 实现 ---
+
+    @Override
+    public int lineCount() {
+        return hasLines ? breaks(root) + 1 : 0;
+    }
+
+    @Override
+    public String getLine(int line) {
+        int start = lineStart(line);
+        return substring(start, start + lineLength(line, start));
+    }
+
+    @Override
+    public int lineLength(int line) {
+        return lineLength(line, lineStart(line));
+    }
+
+    @Override
+    public void insert(int line, int col, String text) {
+        hasLines = true;
+        insertAt(lineStart(line) + col, text);
+    }
+
+    @Override
+    public String delete(int line, int col, int length) {
+        return deleteRange(lineStart(line) + col, length);
+    }
+
+    @Override
+    public void insertLine(int line, String text) {
+        if (!hasLines) {
+            hasLines = true;
+            insertAt(0, text);
+        } else if (line < lineCount()) {
+            int start = lineStart(line);
+            insertAt(start, "\n");
+            insertAt(start, text);
+        } else {
+            int end = size(root);
+            insertAt(end, text);
+            insertAt(end, "\n");
+        }
+    }
+
+    @Override
+    public String removeLine(int line) {
+        int count = lineCount();
+        int start = lineStart(line);
+        int length = lineLength(line, start);
+        if (count == 1) {
+            String removed = deleteRange(0, size(root));
+            hasLines = false;
+            return removed;
+        }
+        if (line < count - 1) {
+            return deleteRange(start, length + 1).substring(0, length);
+        }
+        return deleteRange(start - 1, length + 1).substring(1);
+    }
+
+    @Override
+    public String setLine(int line, String text) {
+        int start = lineStart(line);
+        String old = deleteRange(start, lineLength(line, start));
+        insertAt(start, text);
+        return old;
+    }
+
+    @Override
+    public void setText(CharSequence content) {
+        original = content;
+        // CompactText 读取时已记录换行位置，不必再扫描一遍
+        originalBreaks = content instanceof CompactText
+                ? ((CompactText) content).lineBreaks()
+                : scanBreaks(content);
+        added.setLength(0);
+        addedBreakCount = 0;
+        hasLines = !content.isEmpty();
+        root = content.isEmpty() ? null
+                : new Piece(false, 0, content.length(), originalBreaks.length, nextPriority());
+    }
+
+    @Override
+    public String getText() {
+        // 未编辑过时直接返回原始内容，不产生拷贝
+        if (root != null && root.left == null && root.right == null && !root.added
+                && root.start == 0 && root.length == original.length()) {
+            return original.toString();
+        }
+        StringBuilder sb = new StringBuilder(size(root));
+        appendAll(root, sb);
+        return sb.toString();
+    }
+
+    @Override
+    public void forEachChunk(ChunkVisitor visitor) throws IOException {
+        visitPieces(root, visitor);
+    }
+
+    /**
+     * 文档总字符数（含换行符）
+     */
+    public int length() {
+        return size(root);
+    }
+
+    /**
+     * 当前片段数（用于观察碎片化程度）
+     */
+    public int pieceCount() {
+        return count(root);
+    }
+
+    // --- 按偏移的基础操作 ---
+
+    private void insertAt(int offset, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        int start = added.length();
+        int breaksBefore = addedBreakCount;
+        added.append(text);
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                if (addedBreakCount == addedBreaks.length) {
+                    addedBreaks = Arrays.copyOf(addedBreaks, addedBreakCount * 2);
+                }
+                addedBreaks[addedBreakCount++] = start + i;
+            }
+        }
+        int newBreaks = addedBreakCount - breaksBefore;
+        if (extendPiece(offset, start, text.length(), newBreaks)) {
+            return;
+        }
+        Piece piece = new Piece(true, start, text.length(), newBreaks, nextPriority());
+        Piece[] parts = split(root, offset);
+        root = merge(merge(parts[0], piece), parts[1]);
+    }
+
+    /**
+     * 连续输入时，offset 前面的片段通常正好结束在追加缓冲区原来的末尾：
+     * 这时原地延长该片段（并更新路径上的子树统计），不再新建片段
+     */
+    private boolean extendPiece(int offset, int start, int length, int breakCount) {
+        if (offset == 0) {
+            return false;
+        }
+        // 找到包含 offset - 1 的片段
+        Piece t = root;
+        int base = 0;
+        while (t != null) {
+            int leftSize = size(t.left);
+            if (offset - 1 < base + leftSize) {
+                t = t.left;
+            } else if (offset - 1 < base + leftSize + t.length) {
+                base += leftSize;
+                break;
+            } else {
+                base += leftSize + t.length;
+                t = t.right;
+            }
+        }
+        if (t == null || !t.added || t.start + t.length != start || base + t.length != offset) {
+            return false;
+        }
+        // 沿同一路径再走一遍，途经节点的子树统计加上增量
+        Piece p = root;
+        base = 0;
+        while (true) {
+            p.totalSize += length;
+            p.totalBreaks += breakCount;
+            if (p == t) {
+                break;
+            }
+            int leftSize = size(p.left);
+            if (offset - 1 < base + leftSize) {
+                p = p.left;
+            } else {
+                base += leftSize + p.length;
+                p = p.right;
+            }
+        }
+        t.length += length;
+        t.breaks += breakCount;
+        return true;
+    }
+
+    private String deleteRange(int offset, int length) {
+        if (length == 0) {
+            return "";
+        }
+        Piece[] head = split(root, offset);
+        Piece[] tail = split(head[1], length);
+        StringBuilder sb = new StringBuilder(length);
+        appendAll(tail[0], sb);
+        root = merge(head[0], tail[1]);
+        return sb.toString();
+    }
+
+    private String substring(int from, int to) {
+        StringBuilder sb = new StringBuilder(to - from);
+        collect(root, 0, from, to, sb);
+        return sb.toString();
+    }
+
+    /**
+     * 第 line 行首字符的偏移：即第 line 个换行符之后的位置
+     */
+    private int lineStart(int line) {
+        if (line == 0) {
+            return 0;
+        }
+        int k = line;
+        int base = 0;
+        Piece t = root;
+        while (t != null) {
+            int leftBreaks = breaks(t.left);
+            if (k <= leftBreaks) {
+                t = t.left;
+                continue;
+            }
+            int leftSize = size(t.left);
+            if (k <= leftBreaks + t.breaks) {
+                int pos = nthBreak(t.added, t.start, k - leftBreaks);
+                return base + leftSize + (pos - t.start) + 1;
+            }
+            k -= leftBreaks + t.breaks;
+            base += leftSize + t.length;
+            t = t.right;
+        }
+        throw new IndexOutOfBoundsException("行号越界: " + line);
+    }
+
+    private int lineLength(int line, int start) {
+        int end = line + 1 < lineCount() ? lineStart(line + 1) - 1 : size(root);
+        return end - start;
+    }
+
+    // --- Treap ---
+
+    private static final class Piece {
+        final boolean added; // true: 追加缓冲区, false: 原始缓冲区
+        final int start;
+        int length; // 连续输入时原地延长，见 extendPiece
+        int breaks; // 片段内的换行数
+        final int priority;
+        Piece left;
+        Piece right;
+        int totalSize; // 子树字符数
+        int totalBreaks; // 子树换行数
+
+        Piece(boolean added, int start, int length, int breaks, int priority) {
+            this.added = added;
+            this.start = start;
+            this.length = length;
+            this.breaks = breaks;
+            this.priority = priority;
+            this.totalSize = length;
+            this.totalBreaks = breaks;
+        }
+    }
+
+    private Piece newPiece(boolean fromAdded, int start, int length) {
+        return new Piece(fromAdded, start, length, countBreaks(fromAdded, start, start + length), nextPriority());
+    }
+
+    private static int size(Piece t) {
+        return t == null ? 0 : t.totalSize;
+    }
+
+    private static int breaks(Piece t) {
+        return t == null ? 0 : t.totalBreaks;
+    }
+
+    private static int count(Piece t) {
+        return t == null ? 0 : count(t.left) + 1 + count(t.right);
+    }
+
+    private static void update(Piece t) {
+        t.totalSize = size(t.left) + t.length + size(t.right);
+        t.totalBreaks = breaks(t.left) + t.breaks + breaks(t.right);
+    }
+
+    /**
+     * 按字符偏移切分：返回 [0, offset) 与 [offset, 末尾) 两棵树
+     */
+    private Piece[] split(Piece t, int offset) {
+        if (t == null) {
+            return new Piece[] { null, null };
+        }
+        int leftSize = size(t.left);
+        if (offset <= leftSize) {
+            Piece[] parts = split(t.left, offset);
+            t.left = parts[1];
+            update(t);
+            parts[1] = t;
+            return parts;
+        }
+        if (offset >= leftSize + t.length) {
+            Piece[] parts = split(t.right, offset - leftSize - t.length);
+            t.right = parts[0];
+            update(t);
+            parts[0] = t;
+            return parts;
+        }
+        // 切点落在当前片段内部：拆成两个片段
+        int cut = offset - leftSize;
+        Piece head = newPiece(t.added, t.start, cut);
+        Piece tail = newPiece(t.added, t.start + cut, t.length - cut);
+        return new Piece[] { merge(t.left, head), merge(tail, t.right) };
+    }
+
+    private Piece merge(Piece a, Piece b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private int nextPriority() {
+        // xorshift：无需 java.util.Random 的同步开销
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    // --- 文本收集 ---
+
+    private CharSequence source(boolean fromAdded) {
+        return fromAdded ? added : original;
+    }
+
+    private void appendSource(boolean fromAdded, int start, int end, StringBuilder sb) {
+        if (!fromAdded && original instanceof CompactText) {
+            ((CompactText) original).appendTo(sb, start, end);
+        } else {
+            sb.append(source(fromAdded), start, end);
+        }
+    }
+
+    private void appendAll(Piece t, StringBuilder sb) {
+        if (t == null) {
+            return;
+        }
+        appendAll(t.left, sb);
+        appendSource(t.added, t.start, t.start + t.length, sb);
+        appendAll(t.right, sb);
+    }
+
+    private void visitPieces(Piece t, ChunkVisitor visitor) throws IOException {
+        if (t == null) {
+            return;
+        }
+        visitPieces(t.left, visitor);
+        visitor.visit(source(t.added), t.start, t.start + t.length);
+        visitPieces(t.right, visitor);
+    }
+
+    private void collect(Piece t, int base, int from, int to, StringBuilder sb) {
+        if (t == null || from >= base + t.totalSize || to <= base) {
+            return;
+        }
+        int leftSize = size(t.left);
+        collect(t.left, base, from, to, sb);
+        int pieceBase = base + leftSize;
+        int lo = Math.max(from, pieceBase);
+        int hi = Math.min(to, pieceBase + t.length);
+        if (lo < hi) {
+            appendSource(t.added, t.start + lo - pieceBase, t.start + hi - pieceBase, sb);
+        }
+        collect(t.right, pieceBase + t.length, from, to, sb);
+    }
+
+    // --- 换行位置索引 ---
+
+    private static int[] scanBreaks(CharSequence text) {
+        int n = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                n++;
+            }
+        }
+        int[] result = new int[n];
+        int j = 0;
+        for (int i = 0; i < text.length() && j < n; i++) {
+            if (text.charAt(i) == '\n') {
+                result[j++] = i;
+            }
+        }
+        return result;
+    }
+
+    private int countBreaks(boolean fromAdded, int from, int to) {
+        int[] positions = fromAdded ? addedBreaks : originalBreaks;
+        int n = fromAdded ? addedBreakCount : originalBreaks.length;
+        return lowerBound(positions, n, to) - lowerBound(positions, n, from);
+    }
+
+    /**
+     * 片段内第 n 个（从 1 开始）换行符在缓冲区中的位置
+     */
+    private int nthBreak(boolean fromAdded, int pieceStart, int n) {
+        int[] positions = fromAdded ? addedBreaks : originalBreaks;
+        int count = fromAdded ? addedBreakCount : originalBreaks.length;
+        return positions[lowerBound(positions, count, pieceStart) + n - 1];
+    }
+
+    private static int lowerBound(int[] a, int n, int key) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,50 @@
+package lab1.model;
+
+import lab1.utils.SpellChecker;
+
+import java.util.List;
+
+/**
+ * 带缓存的拼写检查会话（文本按行、XML 按节点），供后台检查使用
+ * 快照和合并都在编辑线程中调用；后台线程只检查快照中的文本（String 不可变），不读文档
+ */
+interface SpellCheckSession {
+    /**
+     * 取出至多 limit 段待检查的文本
+     */
+    Snapshot snapshot(int limit);
+
+    /**
+     * 合并后台检查结果；快照之后文档又被修改过的部分会被丢弃
+     */
+    void apply(Snapshot snapshot, List<List<SpellChecker.SpellingError>> results);
+
+    /**
+     * 已检查部分的错误（不触发检查）
+     */
+    List<SpellChecker.SpellingError> currentErrors();
+
+    /**
+     * 尚未检查的文本段数
+     */
+    int pendingCount();
+
+    /**
+     * 待检查文本的快照：keys 为行号或节点，texts 为对应的文本
+     */
+    final class Snapshot {
+        final long version;
+        final Object[] keys;
+        final String[] texts;
+
+        Snapshot(long version, Object[] keys, String[] texts) {
+            this.version = version;
+            this.keys = keys;
+            this.texts = texts;
+        }
+
+        int size() {
+            return texts.length;
+        }
+    }
+}
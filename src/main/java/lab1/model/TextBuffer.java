@@ -0,0 +1,72 @@
+package lab1.model;
+
+import java.io.IOException;
+
+/**
+ * 文本存储引擎接口 - TextEditor 通过它读写文档内容
+ * 行号、列号均从 0 开始，参数合法性由 TextEditor 负责校验
+ */
+public interface TextBuffer {
+    /**
+     * 当前行数（空文档为 0 行）
+     */
+    int lineCount();
+
+    /**
+     * 获取指定行的内容（不含换行符）
+     */
+    String getLine(int line);
+
+    /**
+     * 获取指定行的长度（不含换行符）
+     */
+    int lineLength(int line);
+
+    /**
+     * 在 line:col 处插入文本
+     */
+    void insert(int line, int col, String text);
+
+    /**
+     * 删除 line:col 起的 length 个字符，返回被删除的文本
+     */
+    String delete(int line, int col, int length);
+
+    /**
+     * 在指定位置插入一整行（line == lineCount() 表示追加到末尾）
+     */
+    void insertLine(int line, String text);
+
+    /**
+     * 移除指定行，返回该行原内容
+     */
+    String removeLine(int line);
+
+    /**
+     * 替换指定行，返回该行原内容
+     */
+    String setLine(int line, String text);
+
+    /**
+     * 用新内容整体替换文档
+     * content 必须不可变（String 或 CompactText），存储引擎可以直接引用而不复制
+     */
+    void setText(CharSequence content);
+
+    /**
+     * 获取完整文档（行之间以 '\n' 连接）
+     */
+    String getText();
+
+    /**
+     * 按文档顺序依次访问内容片段，不拼接整篇文档（用于流式保存）
+     */
+    void forEachChunk(ChunkVisitor visitor) throws IOException;
+
+    /**
+     * 内容片段访问者：片段为 source 的 [start, end) 区间
+     */
+    interface ChunkVisitor {
+        void visit(CharSequence source, int start, int end) throws IOException;
+    }
+}
@@ -0,0 +1,54 @@
+package lab1.model;
+
+/**
+ * 单行范围编辑：把 line:col 起的 length 个字符替换为 text
+ * 行号、列号从 1 开始，与 TextEditor 的命令一致；text 不能包含换行
+ */
+public class TextEdit {
+    private final int line;
+    private final int col;
+    private final int length;
+    private final String text;
+
+    public TextEdit(int line, int col, int length, String text) {
+        this.line = line;
+        this.col = col;
+        this.length = length;
+        this.text = text;
+    }
+
+    /**
+     * 插入：不删除任何字符
+     */
+    public static TextEdit insert(int line, int col, String text) {
+        return new TextEdit(line, col, 0, text);
+    }
+
+    /**
+     * 删除：替换为空串
+     */
+    public static TextEdit delete(int line, int col, int length) {
+        return new TextEdit(line, col, length, "");
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return line + ":" + col + " -" + length + " +\"" + text + "\"";
+    }
+}
@@ -1,88 +1,227 @@
 package lab1.model;
 
+import lab1.utils.SpellChecker;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class TextEditor implements Editor {
-    private List<String> lines;
+    private final TextBuffer buffer;
+    private final List<String> lines;
+    private final List<LineChangeListener> listeners = new ArrayList<>();
     private boolean isModified;
+    private IncrementalSpellChecker spellCheck;
 
     public TextEditor() {
-        this.lines = new ArrayList<>();
+        this(new PieceTable());
+    }
+
+    /**
+     * 使用指定的存储引擎创建编辑器
+     */
+    public TextEditor(TextBuffer buffer) {
+        this.buffer = buffer;
+        this.lines = new LineList();
         this.isModified = false;
     }
 
     public String getText() {
-        return String.join("\n", lines);
+        return buffer.getText();
     }
 
     public void setText(String content) {
-        lines.clear();
-        if (content.isEmpty()) {
-            return;
-        }
-        String[] splitLines = content.split("\n", -1);
-        for (String line : splitLines) {
-            lines.add(line);
-        }
+        int before = buffer.lineCount();
+        buffer.setText(content);
+        fireLinesChanged(0, before, buffer.lineCount());
+    }
+
+    /**
+     * 从 UTF-8 文件加载内容：边读边解码成紧凑的 CompactText，不生成整篇的 String
+     */
+    public void load(Path path) throws IOException {
+        CompactText content = CompactText.read(path);
+        int before = buffer.lineCount();
+        buffer.setText(content);
+        fireLinesChanged(0, before, buffer.lineCount());
     }
 
+    /**
+     * 获取按行访问的视图（直接读写底层存储引擎）
+     */
     public List<String> getLines() {
         return lines;
     }
 
+    public TextBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * 行变化监听器：编辑后收到受影响的行范围（行号从 0 开始）
+     */
+    public interface LineChangeListener {
+        /**
+         * 从 startLine 起原来的 removed 行被替换成了 inserted 行
+         */
+        void linesChanged(int startLine, int removed, int inserted);
+    }
+
+    public void addLineChangeListener(LineChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeLineChangeListener(LineChangeListener listener) {
+        listeners.remove(listener);
+    }
+
     // --- 核心操作 ---
 
     public void append(String text) {
-        lines.add(text);
+        int before = buffer.lineCount();
+        buffer.insertLine(before, text);
         isModified = true;
+        fireLinesChanged(before, 0, buffer.lineCount() - before);
     }
 
     public void insert(int line, int col, String text) {
-        if (line < 1 || line > lines.size() + 1) {
+        int lineCount = buffer.lineCount();
+        if (line < 1 || line > lineCount + 1) {
             throw new IllegalArgumentException("行号越界");
         }
-        if (lines.isEmpty()) {
+        if (lineCount == 0) {
             if (line == 1 && col == 1) {
-                lines.add(text);
+                buffer.insertLine(0, text);
                 isModified = true;
+                fireLinesChanged(0, 0, buffer.lineCount());
                 return;
             } else {
                 throw new IllegalArgumentException("空文件只能在1:1位置插入");
             }
         }
-        String currentLine = lines.get(line - 1);
-        if (col < 1 || col > currentLine.length() + 1) {
+        if (line > lineCount) {
+            throw new IllegalArgumentException("行号越界");
+        }
+        if (col < 1 || col > buffer.lineLength(line - 1) + 1) {
             throw new IllegalArgumentException("列号越界");
         }
 
-        StringBuilder sb = new StringBuilder(currentLine);
-        sb.insert(col - 1, text);
-        lines.set(line - 1, sb.toString());
+        buffer.insert(line - 1, col - 1, text);
         isModified = true;
+        // 插入的文本可能含换行，当前行被拆成多行
+        fireLinesChanged(line - 1, 1, 1 + buffer.lineCount() - lineCount);
     }
 
     public String delete(int line, int col, int length) {
-        if (line < 1 || line > lines.size()) {
+        if (line < 1 || line > buffer.lineCount()) {
             throw new IllegalArgumentException("行号越界");
         }
-        String currentLine = lines.get(line - 1);
-        if (col < 1 || col > currentLine.length() + 1) {
+        int lineLength = buffer.lineLength(line - 1);
+        if (col < 1 || col > lineLength + 1) {
             throw new IllegalArgumentException("列号越界");
         }
-        if (col - 1 + length > currentLine.length()) {
+        if (col - 1 + length > lineLength) {
             throw new IllegalArgumentException("删除长度超出行尾");
         }
 
-        String deletedText = currentLine.substring(col - 1, col - 1 + length);
-        StringBuilder sb = new StringBuilder(currentLine);
-        sb.delete(col - 1, col - 1 + length);
-        lines.set(line - 1, sb.toString());
+        String deletedText = buffer.delete(line - 1, col - 1, length);
         isModified = true;
+        fireLinesChanged(line - 1, 1, 1);
         // 返回被删除的文本，用于Undo
         return deletedText;
     }
 
+    /**
+     * 批量编辑：排序后一次性校验，再按行一次重建受影响的行
+     * 所有编辑的行列号都相对于编辑前的文档，同一行内的编辑不能重叠
+     *
+     * @return 逆向编辑列表（相对于编辑后的文档），再次 applyEdits 即可撤销
+     */
+    public List<TextEdit> applyEdits(List<TextEdit> edits) {
+        List<TextEdit> sorted = new ArrayList<>(edits);
+        sorted.sort(Comparator.comparingInt(TextEdit::getLine).thenComparingInt(TextEdit::getCol));
+        validateEdits(sorted);
+
+        List<TextEdit> inverse = new ArrayList<>(sorted.size());
+        int i = 0;
+        while (i < sorted.size()) {
+            int line = sorted.get(i).getLine();
+            String old = buffer.getLine(line - 1);
+            StringBuilder sb = new StringBuilder(old.length());
+            int cursor = 0;
+            int shift = 0; // 本行前面的编辑造成的列偏移
+            for (; i < sorted.size() && sorted.get(i).getLine() == line; i++) {
+                TextEdit edit = sorted.get(i);
+                int start = edit.getCol() - 1;
+                sb.append(old, cursor, start).append(edit.getText());
+                cursor = start + edit.getLength();
+                inverse.add(new TextEdit(line, edit.getCol() + shift, edit.getText().length(),
+                        old.substring(start, cursor)));
+                shift += edit.getText().length() - edit.getLength();
+            }
+            sb.append(old, cursor, old.length());
+            buffer.setLine(line - 1, sb.toString());
+            fireLinesChanged(line - 1, 1, 1);
+        }
+        if (!sorted.isEmpty()) {
+            isModified = true;
+        }
+        return inverse;
+    }
+
+    private void validateEdits(List<TextEdit> sorted) {
+        int lineCount = buffer.lineCount();
+        int lastLine = -1;
+        int lineLength = 0;
+        int lastEnd = 0;
+        for (TextEdit edit : sorted) {
+            if (edit.getLine() < 1 || edit.getLine() > lineCount) {
+                throw new IllegalArgumentException("行号越界: " + edit);
+            }
+            if (edit.getText().indexOf('\n') >= 0) {
+                throw new IllegalArgumentException("批量编辑的文本不能包含换行: " + edit);
+            }
+            if (edit.getLine() != lastLine) {
+                lastLine = edit.getLine();
+                lineLength = buffer.lineLength(lastLine - 1);
+                lastEnd = 0;
+            }
+            if (edit.getCol() < 1 || edit.getCol() > lineLength + 1) {
+                throw new IllegalArgumentException("列号越界: " + edit);
+            }
+            if (edit.getLength() < 0 || edit.getCol() - 1 + edit.getLength() > lineLength) {
+                throw new IllegalArgumentException("删除长度超出行尾: " + edit);
+            }
+            if (edit.getCol() - 1 < lastEnd) {
+                throw new IllegalArgumentException("编辑范围重叠: " + edit);
+            }
+            lastEnd = edit.getCol() - 1 + edit.getLength();
+        }
+    }
+
+    /**
+     * 获取增量拼写检查（同一个检查器复用按行缓存，换检查器时重建）
+     */
+    public IncrementalSpellChecker getSpellCheck(SpellChecker checker) {
+        if (spellCheck == null || spellCheck.getChecker() != checker) {
+            if (spellCheck != null) {
+                spellCheck.detach();
+            }
+            spellCheck = new IncrementalSpellChecker(this, checker);
+        }
+        return spellCheck;
+    }
+
+    private void fireLinesChanged(int startLine, int removed, int inserted) {
+        for (LineChangeListener listener : listeners) {
+            listener.linesChanged(startLine, removed, inserted);
+        }
+    }
+
     public boolean isModified() {
         return isModified;
     }
@@ -103,8 +242,64 @@ public class TextEditor implements Editor {
         setText(content);
     }
 
+    @Override
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        GatheringChannelWriter writer = new GatheringChannelWriter(channel);
+        buffer.forEachChunk(writer::write);
+        writer.finish();
+    }
+
     @Override
     public String getEditorType() {
         return "text";
     }
-}
\ No newline at end of file
+
+    /**
+     * 行视图：List 接口的读写都转发给存储引擎
+     */
+    private class LineList extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            checkIndex(index, size());
+            return buffer.getLine(index);
+        }
+
+        @Override
+        public int size() {
+            return buffer.lineCount();
+        }
+
+        @Override
+        public String set(int index, String element) {
+            int before = size();
+            checkIndex(index, before);
+            String old = buffer.setLine(index, element);
+            fireLinesChanged(index, 1, 1 + size() - before);
+            return old;
+        }
+
+        @Override
+        public void add(int index, String element) {
+            int before = size();
+            checkIndex(index, before + 1);
+            buffer.insertLine(index, element);
+            modCount++;
+            fireLinesChanged(index, 0, size() - before);
+        }
+
+        @Override
+        public String remove(int index) {
+            checkIndex(index, size());
+            modCount++;
+            String removed = buffer.removeLine(index);
+            fireLinesChanged(index, 1, 0);
+            return removed;
+        }
+
+        private void checkIndex(int index, int bound) {
+            if (index < 0 || index >= bound) {
+                throw new IndexOutOfBoundsException("行号越界: " + index);
+            }
+        }
+    }
+}
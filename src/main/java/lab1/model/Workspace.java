@@ -4,6 +4,7 @@ import lab1.utils.SessionStatistics;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
@@ -14,6 +15,7 @@ public class Workspace {
     private String currentFile;
     private boolean logEnabled = false;
     private final String WORKSPACE_FILE = ".editor_workspace";
+    private static final long LOAD_REPORT_BYTES = 1024 * 1024; // 超过 1MB 的文件输出加载吞吐量
     private SessionStatistics statistics = new SessionStatistics(); // 统计模块
 
     // --- 文件操作 ---
@@ -73,9 +75,15 @@ public class Workspace {
                 // 创建 XML 编辑器
                 XmlEditor xmlEditor = new XmlEditor();
                 if (Files.exists(path)) {
-                    String content = Files.readString(path, StandardCharsets.UTF_8);
-                    xmlEditor.setContent(content);
-                    // TODO: 需要实现 XML 解析逻辑
+                    // 流式解析，不先把整个文件读成字符串
+                    XmlLoader.LoadResult result = xmlEditor.loadFrom(path);
+                    if (result.getBytes() >= LOAD_REPORT_BYTES) {
+                        System.out.println("XML 加载完成: " + result);
+                    }
+                    if (xmlEditor.isCompact()) {
+                        System.out.printf("已使用紧凑 DOM，结构与字符串占用约 %.1f MB%n",
+                                xmlEditor.getCompactDocument().memoryBytes() / (1024.0 * 1024.0));
+                    }
                 } else {
                     xmlEditor.setModified(true);
                 }
@@ -84,8 +92,8 @@ public class Workspace {
                 // 创建文本编辑器
                 TextEditor textEditor = new TextEditor();
                 if (Files.exists(path)) {
-                    String content = Files.readString(path, StandardCharsets.UTF_8);
-                    textEditor.setText(content);
+                    // 流式解码成紧凑存储，不先把整个文件读成字符串
+                    textEditor.load(path);
                     // 检查 #log
                     if (!textEditor.getLines().isEmpty() && textEditor.getLines().get(0).trim().equals("#log")) {
                         logEnabled = true;
@@ -106,6 +114,25 @@ public class Workspace {
         System.out.println("当前活动文件: " + filename);
     }
 
+    /**
+     * 以只读方式查看文件：内存映射，不读入堆，行索引在后台建立
+     */
+    public void view(String filename) throws IOException {
+        if (!fileMap.containsKey(filename)) {
+            Path path = Paths.get(filename);
+            if (!Files.exists(path)) {
+                throw new IOException("文件不存在: " + filename);
+            }
+            MappedFileViewer viewer = new MappedFileViewer(path);
+            fileMap.put(filename, viewer);
+            statistics.resetFile(filename);
+            System.out.println("只读查看: " + filename + " (" + viewer.getSize() + " 字节，行索引在后台建立)");
+        }
+        statistics.onFileActivated(filename);
+        currentFile = filename;
+        System.out.println("当前活动文件: " + filename);
+    }
+
     public void save(String filename) throws IOException {
         if ("all".equals(filename)) {
             for (String f : fileMap.keySet()) {
@@ -123,9 +150,25 @@ public class Workspace {
         Editor editor = fileMap.get(filename);
         if (editor == null)
             return;
-        Files.writeString(Paths.get(filename), editor.getContent(), StandardCharsets.UTF_8);
+        if (editor.isReadOnly()) {
+            System.out.println("只读文件，跳过保存: " + filename);
+            return;
+        }
+        // 流式写入，不先拼出整个文档字符串
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            editor.writeTo(channel);
+        }
         editor.setModified(false);
         System.out.println("已保存: " + filename);
+        if (editor instanceof XmlEditor) {
+            XmlFragmentCache cache = ((XmlEditor) editor).getFragmentCache();
+            if (cache.getLastWrittenBytes() >= LOAD_REPORT_BYTES) {
+                System.out.printf("XML 保存: %.1f MB，其中复用缓存 %.1f MB，耗时 %.1f ms%n",
+                        cache.getLastWrittenBytes() / 1048576.0, cache.getLastCopiedBytes() / 1048576.0,
+                        cache.getLastSeconds() * 1000);
+            }
+        }
     }
 
     public void close(String filename) {
@@ -138,7 +181,10 @@ public class Workspace {
         statistics.onFileDeactivated(target);
 
         // 简单处理：如果未保存，实际应在Main里询问，这里直接关
-        fileMap.remove(target);
+        Editor removed = fileMap.remove(target);
+        if (removed instanceof MappedFileViewer) {
+            ((MappedFileViewer) removed).close();
+        }
         if (target.equals(currentFile)) {
             String newCurrent = fileMap.isEmpty() ? null : fileMap.keySet().iterator().next();
             currentFile = newCurrent;
@@ -158,7 +204,8 @@ public class Workspace {
         for (Map.Entry<String, Editor> entry : fileMap.entrySet()) {
             String filename = entry.getKey();
             String mark = filename.equals(currentFile) ? "*" : "";
-            String mod = entry.getValue().isModified() ? " [modified]" : "";
+            String mod = entry.getValue().isModified() ? " [modified]"
+                    : entry.getValue().isReadOnly() ? " [read-only]" : "";
             String duration = " (" + statistics.getFormattedDuration(filename) + ")";
 
             System.out.println(index++ + " " + mark + " " + filename + mod + duration);
@@ -229,6 +276,17 @@ public class Workspace {
         return null;
     }
 
+    /**
+     * 获取当前活动的只读查看器（类型安全）
+     */
+    public MappedFileViewer getActiveViewer() {
+        Editor editor = getActiveEditor();
+        if (editor instanceof MappedFileViewer) {
+            return (MappedFileViewer) editor;
+        }
+        return null;
+    }
+
     /**
      * 检查当前文件是否为 XML 文件
      */
@@ -236,6 +294,13 @@ public class Workspace {
         return currentFile != null && currentFile.endsWith(".xml");
     }
 
+    /**
+     * 所有打开的文件（按打开顺序，只读视图）
+     */
+    public Map<String, Editor> getEditors() {
+        return Collections.unmodifiableMap(fileMap);
+    }
+
     public String getCurrentFilename() {
         return currentFile;
     }
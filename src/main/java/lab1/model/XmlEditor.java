@@ -1,17 +1,40 @@
 package lab1.model;
 
+import lab1.utils.SpellChecker;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * XML 编辑器 - 使用 DOM 树结构
  * 使用 Composite 模式（XmlNode）管理 XML 结构
+ * 维护 id -> 节点 的哈希索引，查找和唯一性检查均为 O(1)
+ * 超过 COMPACT_THRESHOLD_BYTES 的文件加载为紧凑 DOM（CompactXmlDocument），
+ * 此时 XmlNode 是文档中元素的视图，id 索引也由紧凑文档维护
+ * 保存到通道时使用 XmlFragmentCache：各编辑操作作废被修改节点到根路径上的片段，未修改的子树直接复制字节；
+ * 同样由各编辑操作通知拼写检查会话哪些节点需要重新检查
  */
 public class XmlEditor implements Editor {
+    /** 文件达到该大小时使用紧凑 DOM */
+    public static final long COMPACT_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
     private XmlNode root;
     private boolean isModified;
+    private Map<String, XmlNode> idIndex = new HashMap<>();
+    private CompactXmlDocument compact; // 紧凑模式下的文档（普通模式为 null）
+    private XmlSpellChecker spellCheck;
+    private final XmlFragmentCache fragmentCache = new XmlFragmentCache();
 
     public XmlEditor() {
         // 初始化时创建默认根节点
         this.root = new XmlNode("root", "root");
         this.isModified = false;
+        indexSubtree(root, idIndex);
     }
 
     // --- 核心 XML 操作 ---
@@ -21,11 +44,11 @@ public class XmlEditor implements Editor {
      */
     public void insertBefore(String tagName, String newId, String targetId, String text) {
         // 检查 ID 唯一性
-        if (root.hasIdInSubtree(newId)) {
+        if (containsId(newId)) {
             throw new IllegalArgumentException("ID 已存在: " + newId);
         }
 
-        XmlNode target = root.findById(targetId);
+        XmlNode target = findNodeById(targetId);
         if (target == null) {
             throw new IllegalArgumentException("目标节点不存在: " + targetId);
         }
@@ -35,10 +58,13 @@ public class XmlEditor implements Editor {
         }
 
         XmlNode parent = target.getParent();
-        int index = parent.getChildIndex(target);
-
-        XmlNode newNode = text != null ? new XmlNode(tagName, newId, text) : new XmlNode(tagName, newId);
-        parent.insertChild(index, newNode);
+        XmlNode newNode = createNode(tagName, newId, text);
+        parent.insertBefore(newNode, target);
+        addToIndex(newNode);
+        fragmentCache.invalidate(parent);
+        if (spellCheck != null) {
+            spellCheck.subtreeAdded(newNode);
+        }
 
         isModified = true;
     }
@@ -48,17 +74,22 @@ public class XmlEditor implements Editor {
      */
     public void appendChild(String tagName, String newId, String parentId, String text) {
         // 检查 ID 唯一性
-        if (root.hasIdInSubtree(newId)) {
+        if (containsId(newId)) {
             throw new IllegalArgumentException("ID 已存在: " + newId);
         }
 
-        XmlNode parent = root.findById(parentId);
+        XmlNode parent = findNodeById(parentId);
         if (parent == null) {
             throw new IllegalArgumentException("父节点不存在: " + parentId);
         }
 
-        XmlNode newNode = text != null ? new XmlNode(tagName, newId, text) : new XmlNode(tagName, newId);
+        XmlNode newNode = createNode(tagName, newId, text);
         parent.addChild(newNode);
+        addToIndex(newNode);
+        fragmentCache.invalidate(parent);
+        if (spellCheck != null) {
+            spellCheck.subtreeAdded(newNode);
+        }
 
         isModified = true;
     }
@@ -67,16 +98,19 @@ public class XmlEditor implements Editor {
      * 修改节点 ID
      */
     public void editId(String oldId, String newId) {
-        if (root.hasIdInSubtree(newId)) {
+        if (containsId(newId)) {
             throw new IllegalArgumentException("新 ID 已存在: " + newId);
         }
 
-        XmlNode node = root.findById(oldId);
+        XmlNode node = findNodeById(oldId);
         if (node == null) {
             throw new IllegalArgumentException("节点不存在: " + oldId);
         }
 
+        removeFromIndex(node);
         node.setId(newId);
+        addToIndex(node);
+        fragmentCache.invalidate(node);
         isModified = true;
     }
 
@@ -84,7 +118,7 @@ public class XmlEditor implements Editor {
      * 修改节点文本内容
      */
     public void editText(String elementId, String text) {
-        XmlNode node = root.findById(elementId);
+        XmlNode node = findNodeById(elementId);
         if (node == null) {
             throw new IllegalArgumentException("节点不存在: " + elementId);
         }
@@ -94,6 +128,10 @@ public class XmlEditor implements Editor {
         }
 
         node.setTextContent(text);
+        fragmentCache.invalidate(node);
+        if (spellCheck != null) {
+            spellCheck.textChanged(node);
+        }
         isModified = true;
     }
 
@@ -101,7 +139,7 @@ public class XmlEditor implements Editor {
      * 删除节点及其子树
      */
     public void deleteElement(String elementId) {
-        XmlNode node = root.findById(elementId);
+        XmlNode node = findNodeById(elementId);
         if (node == null) {
             throw new IllegalArgumentException("节点不存在: " + elementId);
         }
@@ -112,7 +150,35 @@ public class XmlEditor implements Editor {
 
         XmlNode parent = node.getParent();
         parent.removeChild(node);
+        unindexSubtree(node);
+        fragmentCache.invalidate(parent);
+        fragmentCache.invalidateSubtree(node);
+        if (spellCheck != null) {
+            spellCheck.subtreeRemoved(node);
+        }
+
+        isModified = true;
+    }
 
+    /**
+     * 将已删除的子树放回原父节点中 before 之前（用于撤销删除），before 为 null 时追加到末尾
+     * 按兄弟节点定位而不是按下标：紧凑文档中不需要沿兄弟链数到下标
+     */
+    public void restoreElement(XmlNode parent, XmlNode before, XmlNode node) {
+        if (before != null) {
+            parent.insertBefore(node, before);
+        } else {
+            parent.addChild(node);
+        }
+        if (compact != null) {
+            compact.indexSubtree(node.ref);
+        } else {
+            indexSubtree(node, idIndex);
+        }
+        fragmentCache.invalidate(parent);
+        if (spellCheck != null) {
+            spellCheck.subtreeAdded(node);
+        }
         isModified = true;
     }
 
@@ -127,25 +193,99 @@ public class XmlEditor implements Editor {
      * 根据 ID 查找节点
      */
     public XmlNode findNodeById(String id) {
-        return root.findById(id);
+        return compact != null ? compact.view(compact.findById(id)) : idIndex.get(id);
     }
 
     /**
-     * 获取所有文本内容（用于拼写检查）
+     * 检查 ID 是否已被使用
      */
-    public String getAllTextContent() {
-        StringBuilder sb = new StringBuilder();
-        collectTextContent(root, sb);
-        return sb.toString().trim();
+    public boolean containsId(String id) {
+        return compact != null ? compact.findById(id) != CompactXmlDocument.NONE : idIndex.containsKey(id);
+    }
+
+    private XmlNode createNode(String tagName, String id, String text) {
+        if (compact != null) {
+            return compact.view(compact.createNode(tagName, id, text));
+        }
+        return text != null ? new XmlNode(tagName, id, text) : new XmlNode(tagName, id);
+    }
+
+    // --- ID 索引维护 ---
+
+    private void addToIndex(XmlNode node) {
+        if (compact != null) {
+            compact.indexId(node.ref);
+        } else {
+            idIndex.put(node.getId(), node);
+        }
+    }
+
+    private void removeFromIndex(XmlNode node) {
+        if (compact != null) {
+            compact.unindexId(compact.idEntry(node.ref));
+        } else {
+            idIndex.remove(node.getId());
+        }
+    }
+
+    private static void indexSubtree(XmlNode subtree, Map<String, XmlNode> index) {
+        for (XmlNode node : XmlTraversal.preOrder(subtree)) {
+            if (index.put(node.getId(), node) != null) {
+                throw new IllegalArgumentException("ID 已存在: " + node.getId());
+            }
+        }
+    }
+
+    private void unindexSubtree(XmlNode node) {
+        if (compact != null) {
+            compact.unindexSubtree(node.ref);
+            return;
+        }
+        for (XmlNode descendant : XmlTraversal.preOrder(node)) {
+            idIndex.remove(descendant.getId());
+        }
+    }
+
+    /**
+     * 文本节点访问者：按文档顺序逐个接收带文本内容的节点
+     */
+    public interface TextVisitor {
+        void visit(XmlNode node);
+    }
+
+    /**
+     * 按文档顺序访问所有带文本内容的节点，不拼接文本
+     */
+    public void forEachText(TextVisitor visitor) {
+        for (XmlNode node : XmlTraversal.preOrder(root)) {
+            if (node.getTextContent() != null) {
+                visitor.visit(node);
+            }
+        }
     }
 
-    private void collectTextContent(XmlNode node, StringBuilder sb) {
-        if (node.getTextContent() != null) {
-            sb.append(node.getTextContent()).append(" ");
+    /**
+     * 获取拼写检查（同一个检查器复用按节点缓存，换检查器时重建）
+     */
+    public XmlSpellChecker getSpellCheck(SpellChecker checker) {
+        if (spellCheck == null || spellCheck.getChecker() != checker) {
+            spellCheck = new XmlSpellChecker(this, checker);
         }
-        for (XmlNode child : node.getChildren()) {
-            collectTextContent(child, sb);
+        return spellCheck;
+    }
+
+    /**
+     * 获取所有文本内容（以空格连接）
+     */
+    public String getAllTextContent() {
+        StringBuilder sb = new StringBuilder();
+        for (XmlNode node : XmlTraversal.preOrder(root)) {
+            String text = node.getTextContent();
+            if (text != null) {
+                sb.append(text).append(" ");
+            }
         }
+        return sb.toString().trim();
     }
 
     // --- Editor 接口实现 ---
@@ -155,13 +295,59 @@ public class XmlEditor implements Editor {
         return root.toXmlString();
     }
 
+    /**
+     * 将整个文档流式写入 writer（不生成完整字符串）
+     */
+    public void writeTo(Writer writer) throws IOException {
+        new XmlSerializer(writer).write(root);
+        writer.flush();
+    }
+
+    /**
+     * 增量保存：未修改的子树复制缓存的字节，只重新序列化修改过的路径（不关闭通道）
+     */
+    @Override
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        fragmentCache.write(root, channel);
+    }
+
+    /**
+     * 保存缓存（统计上次保存复用 / 写出的字节数）
+     */
+    public XmlFragmentCache getFragmentCache() {
+        return fragmentCache;
+    }
+
     @Override
     public void setContent(String content) {
-        // 简化实现：解析 XML 字符串（实际项目中应使用 DOM Parser）
-        // 这里我们假设内容已经是正确的 XML 格式
-        // 为了支持 load 功能，需要实现简单的 XML 解析
-        // 暂时先保留原有结构，后续在需要时补充解析逻辑
-        // TODO: 实现 XML 解析
+        try {
+            applyLoadResult(new XmlLoader().load(content));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从文件流式加载 XML（空文件保留默认根节点），大文件自动使用紧凑 DOM
+     *
+     * @return 加载统计（字节数、节点数、耗时）
+     */
+    public XmlLoader.LoadResult loadFrom(Path path) throws IOException {
+        return loadFrom(path, Files.size(path) >= COMPACT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * 从文件流式加载 XML，compact 指定是否使用紧凑 DOM
+     */
+    public XmlLoader.LoadResult loadFrom(Path path, boolean compact) throws IOException {
+        XmlLoader loader = new XmlLoader();
+        XmlLoader.LoadResult result = compact ? loader.loadCompact(path) : loader.load(path);
+        applyLoadResult(result);
+        return result;
+    }
+
+    private void applyLoadResult(XmlLoader.LoadResult result) {
+        setRoot(result.getRoot() != null ? result.getRoot() : new XmlNode("root", "root"));
         isModified = false;
     }
 
@@ -187,7 +373,36 @@ public class XmlEditor implements Editor {
     }
 
     public void setRoot(XmlNode root) {
+        // 先为新树建立索引（同时检查 ID 唯一性），成功后再替换
+        if (root.doc != null) {
+            root.doc.reindex(root.ref);
+            root.doc.setRoot(root.ref);
+            this.idIndex = new HashMap<>();
+        } else {
+            Map<String, XmlNode> newIndex = new HashMap<>();
+            indexSubtree(root, newIndex);
+            this.idIndex = newIndex;
+        }
         this.root = root;
+        this.compact = root.doc;
+        fragmentCache.clear();
+        if (spellCheck != null) {
+            spellCheck.reset();
+        }
         this.isModified = true;
     }
+
+    /**
+     * 是否使用紧凑 DOM
+     */
+    public boolean isCompact() {
+        return compact != null;
+    }
+
+    /**
+     * 紧凑模式下的文档（用于内存统计），普通模式返回 null
+     */
+    public CompactXmlDocument getCompactDocument() {
+        return compact;
+    }
 }
@@ -0,0 +1,365 @@
+package lab1.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XML 保存缓存 - 按子树缓存序列化后的 UTF-8 字节（片段）
+ * 片段建在“不超过 MAX_FRAGMENT_BYTES 的最大子树”上，父节点生成片段时会取代子节点的片段，
+ * 所以每个字节至多缓存一次，缓存总量约等于文档大小。
+ * 修改节点时只作废从该节点到根路径上的片段；保存时有效片段直接复制字节，其余部分重新序列化并生成新片段。
+ * 缩进取决于深度，片段记录生成时的深度，深度不同时不复用。
+ * 与 id 索引一样，只有经由 XmlEditor 的修改才会作废片段
+ */
+public final class XmlFragmentCache {
+    static final int MAX_FRAGMENT_BYTES = 64 * 1024;
+    private static final int FLUSH_BYTES = 256 * 1024;
+
+    private final Map<XmlNode, Fragment> fragments = new HashMap<>();
+    private long fragmentBytes;
+    private long lastCopiedBytes;
+    private long lastWrittenBytes;
+    private long lastNanos;
+
+    private static final class Fragment {
+        final byte[] bytes;
+        final int depth;
+
+        Fragment(byte[] bytes, int depth) {
+            this.bytes = bytes;
+            this.depth = depth;
+        }
+    }
+
+    // --- 作废 ---
+
+    /**
+     * 节点自身（文本、id 或子节点列表）变化：作废它和所有祖先的片段
+     */
+    public void invalidate(XmlNode node) {
+        for (XmlNode n = node; n != null; n = n.getParent()) {
+            remove(n);
+        }
+    }
+
+    /**
+     * 子树被摘下：丢弃子树中的片段（片段之下不会再有片段，不必继续向下）
+     */
+    public void invalidateSubtree(XmlNode subtree) {
+        XmlTraversal.walk(subtree, new XmlTraversal.Visitor() {
+            private boolean removed;
+
+            @Override
+            public void enter(XmlNode node, int depth) {
+                removed = remove(node);
+            }
+
+            @Override
+            public boolean descend(XmlNode node) {
+                return !removed;
+            }
+        });
+    }
+
+    public void clear() {
+        fragments.clear();
+        fragmentBytes = 0;
+    }
+
+    private boolean remove(XmlNode node) {
+        Fragment fragment = fragments.remove(node);
+        if (fragment == null) {
+            return false;
+        }
+        fragmentBytes -= fragment.bytes.length;
+        return true;
+    }
+
+    // --- 保存 ---
+
+    /**
+     * 把以 root 为根的文档写入通道（格式与 XmlSerializer 相同），同时为重新序列化的部分生成片段
+     */
+    public void write(XmlNode root, WritableByteChannel channel) throws IOException {
+        long start = System.nanoTime();
+        Save save = new Save(channel);
+        try {
+            XmlTraversal.walk(root, save);
+            save.flush(true);
+        } catch (java.io.UncheckedIOException e) {
+            throw e.getCause();
+        }
+        lastCopiedBytes = save.copied;
+        lastWrittenBytes = save.written;
+        lastNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * 当前路径上的一个节点
+     * start 为该节点输出在缓冲区中的起点，-1 表示已超过片段上限（输出可以直接写出）
+     */
+    private static final class Frame {
+        final XmlNode node;
+        final boolean cached; // 直接复制了已有片段
+        int start;
+        List<XmlNode> covered; // 子树中已有片段的节点，本节点生成片段后这些片段被取代
+
+        Frame(XmlNode node, boolean cached, int start) {
+            this.node = node;
+            this.cached = cached;
+            this.start = start;
+        }
+    }
+
+    /**
+     * 一次保存：输出先进入 buf，不再可能成为片段的前缀部分写到通道
+     * frames[firstBuffering..] 为仍可能成为片段的节点（总是当前路径的一段后缀）
+     */
+    private final class Save implements XmlTraversal.Visitor {
+        private final WritableByteChannel channel;
+        private byte[] buf = new byte[FLUSH_BYTES + MAX_FRAGMENT_BYTES];
+        private int size;
+        private final List<Frame> frames = new ArrayList<>();
+        private int firstBuffering;
+        long copied;
+        long written;
+
+        Save(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void enter(XmlNode node, int depth) {
+            Fragment fragment = fragments.get(node);
+            if (fragment != null && fragment.depth == depth) {
+                copied += fragment.bytes.length;
+                if (firstBuffering == frames.size()) {
+                    // 父节点的输出已不会成为片段：复制的字节只需攒够后写出（片段都很小，直接写出系统调用太多）
+                    frames.add(new Frame(node, true, -1));
+                    firstBuffering++;
+                } else {
+                    frames.add(new Frame(node, true, size));
+                }
+                put(fragment.bytes);
+                return;
+            }
+            if (fragment != null) {
+                remove(node);
+            }
+            frames.add(new Frame(node, false, size));
+            // 开始标签；叶子节点紧接着输出文本，有子节点时换行
+            indent(depth);
+            put('<');
+            putString(node.getTagName(), false, false);
+            putAscii(" id=\"");
+            putString(node.getId(), true, true);
+            putAscii("\">");
+            if (node.isLeaf()) {
+                String text = node.getTextContent();
+                if (text != null) {
+                    putString(text, true, false);
+                }
+            } else {
+                put('\n');
+            }
+            checkOverflow();
+        }
+
+        @Override
+        public boolean descend(XmlNode node) {
+            return !frames.get(frames.size() - 1).cached;
+        }
+
+        @Override
+        public void leave(XmlNode node, int depth) {
+            Frame frame = frames.get(frames.size() - 1);
+            if (!frame.cached) {
+                if (!node.isLeaf()) {
+                    indent(depth);
+                }
+                putAscii("</");
+                putString(node.getTagName(), false, false);
+                putAscii(">\n");
+                checkOverflow();
+            }
+            frames.remove(frames.size() - 1);
+            if (frame.start < 0) {
+                firstBuffering = Math.min(firstBuffering, frames.size());
+                return;
+            }
+            if (!frame.cached) {
+                Fragment fragment = new Fragment(Arrays.copyOfRange(buf, frame.start, size), depth);
+                fragments.put(node, fragment);
+                fragmentBytes += fragment.bytes.length;
+                if (frame.covered != null) {
+                    for (XmlNode child : frame.covered) {
+                        remove(child);
+                    }
+                }
+            }
+            if (!frames.isEmpty()) {
+                Frame parent = frames.get(frames.size() - 1);
+                if (parent.covered == null) {
+                    parent.covered = new ArrayList<>();
+                }
+                parent.covered.add(node);
+            }
+            firstBuffering = Math.min(firstBuffering, frames.size());
+        }
+
+        /**
+         * 输出超过片段上限的节点不再生成片段，它们之前的输出可以写出
+         */
+        private void checkOverflow() {
+            while (firstBuffering < frames.size()) {
+                Frame frame = frames.get(firstBuffering);
+                if (size - frame.start <= MAX_FRAGMENT_BYTES) {
+                    break;
+                }
+                frame.start = -1;
+                frame.covered = null;
+                firstBuffering++;
+            }
+            flush(false);
+        }
+
+        /**
+         * 写出缓冲区中不属于任何候选片段的前缀（force 为 false 时攒够 FLUSH_BYTES 再写）
+         */
+        void flush(boolean force) {
+            int limit = firstBuffering < frames.size() ? frames.get(firstBuffering).start : size;
+            if (limit == 0 || (!force && limit < FLUSH_BYTES)) {
+                return;
+            }
+            writeFully(ByteBuffer.wrap(buf, 0, limit));
+            written += limit;
+            System.arraycopy(buf, limit, buf, 0, size - limit);
+            size -= limit;
+            for (int i = firstBuffering; i < frames.size(); i++) {
+                frames.get(i).start -= limit;
+            }
+        }
+
+        private void writeFully(ByteBuffer bytes) {
+            try {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }
+
+        // --- UTF-8 编码 ---
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(size + extra, buf.length * 2));
+            }
+        }
+
+        private void put(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        private void put(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+            checkOverflow();
+        }
+
+        private void putAscii(String s) {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                buf[size++] = (byte) s.charAt(i);
+            }
+        }
+
+        private void indent(int depth) {
+            ensure(depth * 2);
+            Arrays.fill(buf, size, size + depth * 2, (byte) ' ');
+            size += depth * 2;
+        }
+
+        /**
+         * 编码为 UTF-8；escape 时转义 &amp; &lt; &gt;，attribute 时再转义双引号（与 XmlSerializer 一致）
+         */
+        private void putString(String s, boolean escape, boolean attribute) {
+            ensure(s.length() * 6); // 最长的实体 &quot; 为 6 字节，其余字符至多 3 字节（代理对 2 个字符 4 字节）
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    if (escape && (c == '&' || c == '<' || c == '>' || (attribute && c == '"'))) {
+                        String entity = c == '&' ? "&amp;" : c == '<' ? "&lt;" : c == '>' ? "&gt;" : "&quot;";
+                        for (int k = 0; k < entity.length(); k++) {
+                            buf[size++] = (byte) entity.charAt(k);
+                        }
+                    } else {
+                        buf[size++] = (byte) c;
+                    }
+                } else if (c < 0x800) {
+                    buf[size++] = (byte) (0xC0 | (c >> 6));
+                    buf[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf[size++] = (byte) (0xF0 | (cp >> 18));
+                    buf[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[size++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buf[size++] = '?'; // 不成对的代理（与 String.getBytes 相同）
+                } else {
+                    buf[size++] = (byte) (0xE0 | (c >> 12));
+                    buf[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+
+    // --- 统计 ---
+
+    /**
+     * 片段数
+     */
+    public int getFragmentCount() {
+        return fragments.size();
+    }
+
+    /**
+     * 片段占用的字节数
+     */
+    public long getFragmentBytes() {
+        return fragmentBytes;
+    }
+
+    /**
+     * 上次保存中直接复制片段的字节数
+     */
+    public long getLastCopiedBytes() {
+        return lastCopiedBytes;
+    }
+
+    /**
+     * 上次保存写出的总字节数
+     */
+    public long getLastWrittenBytes() {
+        return lastWrittenBytes;
+    }
+
+    /**
+     * 上次保存的耗时（秒）
+     */
+    public double getLastSeconds() {
+        return lastNanos / 1e9;
+    }
+}
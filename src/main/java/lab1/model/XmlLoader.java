@@ -0,0 +1,209 @@
+package lab1.model;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * XML 加载器 - 基于 StAX 拉取式解析
+ * 从文件通道边读边建树，原始文本不会整体驻留内存
+ * 可以建成普通的对象树，也可以直接建成紧凑 DOM（CompactXmlDocument），后者用于特别大的文档
+ */
+public class XmlLoader {
+    private final XMLInputFactory factory;
+
+    public XmlLoader() {
+        factory = XMLInputFactory.newInstance();
+        // 编辑器只处理普通元素，关闭 DTD 和外部实体
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * 从文件加载（空文件返回 null）
+     */
+    public LoadResult load(Path path) throws IOException {
+        return load(path, null);
+    }
+
+    /**
+     * 从文件加载为紧凑 DOM（空文件返回 null），结果的根节点为文档中的视图
+     */
+    public LoadResult loadCompact(Path path) throws IOException {
+        return load(path, new CompactXmlDocument());
+    }
+
+    private LoadResult load(Path path, CompactXmlDocument doc) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes == 0) {
+                return new LoadResult(null, 0, 0, System.nanoTime() - start);
+            }
+            try (InputStream in = Channels.newInputStream(channel)) {
+                XMLStreamReader reader = factory.createXMLStreamReader(in);
+                return parse(reader, doc, bytes, start);
+            } catch (XMLStreamException e) {
+                throw new IOException("XML 解析失败: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 从字符串加载（用于 Editor.setContent）
+     */
+    public LoadResult load(String content) throws IOException {
+        long start = System.nanoTime();
+        if (content.isBlank()) {
+            return new LoadResult(null, 0, 0, System.nanoTime() - start);
+        }
+        try (Reader in = new StringReader(content)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            return parse(reader, null, content.length(), start);
+        } catch (XMLStreamException e) {
+            throw new IOException("XML 解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解析并建树；doc 不为 null 时节点建在紧凑文档中（栈中只有当前路径上的视图）
+     */
+    private LoadResult parse(XMLStreamReader reader, CompactXmlDocument doc, long bytes, long start)
+            throws XMLStreamException {
+        Deque<XmlNode> stack = new ArrayDeque<>();
+        StringBuilder text = new StringBuilder();
+        XmlNode root = null;
+        long nodes = 0;
+
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT: {
+                        checkNoMixedContent(text, reader);
+                        text.setLength(0);
+                        String id = reader.getAttributeValue(null, "id");
+                        if (id == null) {
+                            throw new XMLStreamException("元素 <" + reader.getLocalName() + "> 缺少 id 属性",
+                                    reader.getLocation());
+                        }
+                        XmlNode node = doc == null ? new XmlNode(tagName(reader), id)
+                                : doc.view(doc.createNode(tagName(reader), id, null));
+                        if (stack.isEmpty()) {
+                            root = node;
+                        } else {
+                            stack.peek().addChild(node);
+                        }
+                        stack.push(node);
+                        nodes++;
+                        break;
+                    }
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (!stack.isEmpty()) {
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT: {
+                        XmlNode node = stack.pop();
+                        if (node.isLeaf()) {
+                            if (text.length() > 0) {
+                                node.setTextContent(text.toString());
+                            }
+                        } else {
+                            checkNoMixedContent(text, reader);
+                        }
+                        text.setLength(0);
+                        break;
+                    }
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        if (root == null) {
+            throw new XMLStreamException("文档中没有根元素");
+        }
+        if (doc != null) {
+            doc.setRoot(root.ref);
+            doc.trimToSize();
+        }
+        return new LoadResult(root, bytes, nodes, System.nanoTime() - start);
+    }
+
+    private static String tagName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    private static void checkNoMixedContent(CharSequence text, XMLStreamReader reader) throws XMLStreamException {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                throw new XMLStreamException("不支持混合内容：元素中同时包含文本和子元素", reader.getLocation());
+            }
+        }
+    }
+
+    /**
+     * 加载结果及吞吐量统计
+     */
+    public static class LoadResult {
+        private final XmlNode root;
+        private final long bytes;
+        private final long nodes;
+        private final long nanos;
+
+        public LoadResult(XmlNode root, long bytes, long nodes, long nanos) {
+            this.root = root;
+            this.bytes = bytes;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        public XmlNode getRoot() {
+            return root;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        public double getMegabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / (1024.0 * 1024.0) / getSeconds();
+        }
+
+        public double getNodesPerSecond() {
+            return nanos == 0 ? 0 : nodes / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d 个节点, %.1f MB, 耗时 %.3f 秒 (%.1f MB/s, %.0f 节点/s)",
+                    nodes, bytes / (1024.0 * 1024.0), getSeconds(), getMegabytesPerSecond(), getNodesPerSecond());
+        }
+    }
+}
@@ -1,33 +1,57 @@
 package lab1.model;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * XML 节点 - Composite 模式实现
  * 用于构建 XML DOM 树结构
+ * 节点有两种形态：普通的对象节点；或紧凑 DOM（CompactXmlDocument）中某个元素的视图，
+ * 视图只包含文档和下标，所有读写都转发给文档。两种形态的节点不能混在同一棵树中
  */
 public class XmlNode {
     private String tagName;
     private String id;
     private String textContent; // 文本内容（仅叶子节点）
-    private List<XmlNode> children; // 子节点列表
+    private ChildList children; // 子节点列表（分块存储，按位置插入 / 删除和查找位置都不扫描整个列表）
     private XmlNode parent; // 父节点引用
+    ChildList.Chunk chunk; // 在父节点子节点列表中所在的块（由 ChildList 维护）
+    final CompactXmlDocument doc; // 视图所属的紧凑文档（对象节点为 null）
+    final int ref;                // 视图对应的元素下标
 
     public XmlNode(String tagName, String id) {
         this.tagName = tagName;
         this.id = id;
         this.textContent = null;
-        this.children = new ArrayList<>();
+        this.children = new ChildList();
         this.parent = null;
+        this.doc = null;
+        this.ref = CompactXmlDocument.NONE;
     }
 
     public XmlNode(String tagName, String id, String textContent) {
         this.tagName = tagName;
         this.id = id;
         this.textContent = textContent;
-        this.children = new ArrayList<>();
+        this.children = new ChildList();
         this.parent = null;
+        this.doc = null;
+        this.ref = CompactXmlDocument.NONE;
+    }
+
+    /**
+     * 紧凑文档中元素的视图（由 CompactXmlDocument.view 创建）
+     */
+    XmlNode(CompactXmlDocument doc, int ref) {
+        this.doc = doc;
+        this.ref = ref;
     }
 
     // --- Composite 模式方法 ---
@@ -36,8 +60,10 @@ public class XmlNode {
      * 添加子节点
      */
     public void addChild(XmlNode child) {
-        if (this.textContent != null) {
-            throw new IllegalStateException("不支持混合内容：已有文本的节点不能添加子节点");
+        checkCanAddChild(child);
+        if (doc != null) {
+            doc.appendChild(ref, child.ref);
+            return;
         }
         children.add(child);
         child.parent = this;
@@ -47,25 +73,63 @@ public class XmlNode {
      * 在指定位置插入子节点
      */
     public void insertChild(int index, XmlNode child) {
-        if (this.textContent != null) {
-            throw new IllegalStateException("不支持混合内容：已有文本的节点不能添加子节点");
+        checkCanAddChild(child);
+        if (doc != null) {
+            if (index < 0) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            doc.insertChild(ref, index, child.ref);
+            return;
         }
         children.add(index, child);
         child.parent = this;
     }
 
+    /**
+     * 把 child 插到子节点 before 之前（紧凑文档中为 O(1)，不需要先求位置）
+     */
+    public void insertBefore(XmlNode child, XmlNode before) {
+        if (before.getParent() != this && !equals(before.getParent())) {
+            throw new IllegalArgumentException("节点 " + before.getId() + " 不是 " + getId() + " 的子节点");
+        }
+        if (doc != null) {
+            checkCanAddChild(child);
+            doc.insertBefore(ref, child.ref, before.ref);
+        } else {
+            insertChild(getChildIndex(before), child);
+        }
+    }
+
+    private void checkCanAddChild(XmlNode child) {
+        if (child.doc != doc) {
+            throw new IllegalArgumentException("紧凑文档的节点不能与普通节点混用");
+        }
+        if (doc != null ? doc.hasText(ref) : textContent != null) {
+            throw new IllegalStateException("不支持混合内容：已有文本的节点不能添加子节点");
+        }
+    }
+
     /**
      * 移除子节点
      */
     public void removeChild(XmlNode child) {
+        if (doc != null) {
+            if (doc.parent(child.ref) == ref) {
+                doc.detach(child.ref);
+            }
+            return;
+        }
         children.remove(child);
         child.parent = null;
     }
 
     /**
-     * 获取子节点在父节点中的索引
+     * 获取子节点在父节点中的索引（不是子节点时返回 -1）
      */
     public int getChildIndex(XmlNode child) {
+        if (doc != null) {
+            return child.doc == doc ? doc.childIndex(ref, child.ref) : -1;
+        }
         return children.indexOf(child);
     }
 
@@ -73,27 +137,31 @@ public class XmlNode {
      * 判断是否为叶子节点
      */
     public boolean isLeaf() {
-        return children.isEmpty();
+        return doc != null ? doc.firstChild(ref) == CompactXmlDocument.NONE : children.isEmpty();
     }
 
     /**
      * 判断是否为根节点
      */
     public boolean isRoot() {
-        return parent == null;
+        return doc != null ? doc.parent(ref) == CompactXmlDocument.NONE : parent == null;
     }
 
     /**
-     * 递归查找指定 ID 的节点
+     * 在子树中查找指定 ID 的节点（先序遍历，不递归）
      */
     public XmlNode findById(String targetId) {
-        if (this.id.equals(targetId)) {
-            return this;
+        if (doc != null) {
+            for (int node = ref; node != CompactXmlDocument.NONE; node = doc.nextInSubtree(node, ref)) {
+                if (doc.id(node).equals(targetId)) {
+                    return doc.view(node);
+                }
+            }
+            return null;
         }
-        for (XmlNode child : children) {
-            XmlNode found = child.findById(targetId);
-            if (found != null) {
-                return found;
+        for (XmlNode node : XmlTraversal.preOrder(this)) {
+            if (node.id.equals(targetId)) {
+                return node;
             }
         }
         return null;
@@ -107,105 +175,253 @@ public class XmlNode {
     }
 
     /**
-     * 转换为 XML 字符串
+     * 转换为 XML 字符串（大文档保存请直接用 XmlSerializer 写入流）
      */
     public String toXmlString() {
-        return toXmlString(0);
-    }
-
-    private String toXmlString(int indent) {
-        StringBuilder sb = new StringBuilder();
-        String indentStr = "  ".repeat(indent);
-
-        // 开始标签
-        sb.append(indentStr).append("<").append(tagName).append(" id=\"").append(id).append("\">");
-
-        if (textContent != null) {
-            // 叶子节点：直接输出文本
-            sb.append(textContent);
-            sb.append("</").append(tagName).append(">\n");
-        } else if (children.isEmpty()) {
-            // 空节点
-            sb.append("</").append(tagName).append(">\n");
-        } else {
-            // 有子节点：递归输出
-            sb.append("\n");
-            for (XmlNode child : children) {
-                sb.append(child.toXmlString(indent + 1));
-            }
-            sb.append(indentStr).append("</").append(tagName).append(">\n");
+        StringWriter writer = new StringWriter();
+        try {
+            new XmlSerializer(writer).write(this);
+        } catch (IOException e) {
+            // StringWriter 不会抛出 IOException
+            throw new UncheckedIOException(e);
         }
-
-        return sb.toString();
+        return writer.toString();
     }
 
     /**
      * 打印树形结构（用于 xml-tree 命令）
      */
     public String toTreeString() {
-        return toTreeString(0);
-    }
-
-    private String toTreeString(int depth) {
         StringBuilder sb = new StringBuilder();
-        String prefix = "  ".repeat(depth);
-
-        // 显示节点信息：标签名 [id]
-        sb.append(prefix).append("|- ").append(tagName).append(" [id=").append(id).append("]");
-        if (textContent != null) {
-            sb.append(" \"").append(textContent).append("\"");
-        }
-        sb.append("\n");
-
-        // 递归显示子节点
-        for (XmlNode child : children) {
-            sb.append(child.toTreeString(depth + 1));
-        }
-
+        XmlTraversal.walk(this, (node, depth) -> {
+            // 显示节点信息：标签名 [id]
+            String text = node.getTextContent();
+            for (int i = 0; i < depth; i++) {
+                sb.append("  ");
+            }
+            sb.append("|- ").append(node.getTagName()).append(" [id=").append(node.getId()).append("]");
+            if (text != null) {
+                sb.append(" \"").append(text).append("\"");
+            }
+            sb.append("\n");
+        });
         return sb.toString();
     }
 
     /**
-     * 克隆节点（深拷贝，用于 undo/redo）
+     * 克隆节点（深拷贝，用于 undo/redo；视图克隆为普通对象节点）
      */
     public XmlNode clone() {
-        XmlNode cloned = new XmlNode(this.tagName, this.id, this.textContent);
-        for (XmlNode child : this.children) {
-            cloned.addChild(child.clone());
-        }
-        return cloned;
+        // copies 为当前路径上已复制的祖先
+        Deque<XmlNode> copies = new ArrayDeque<>();
+        XmlNode[] result = new XmlNode[1];
+        XmlTraversal.walk(this, new XmlTraversal.Visitor() {
+            @Override
+            public void enter(XmlNode node, int depth) {
+                XmlNode copy = new XmlNode(node.getTagName(), node.getId(), node.getTextContent());
+                if (copies.isEmpty()) {
+                    result[0] = copy;
+                } else {
+                    copies.peek().addChild(copy);
+                }
+                copies.push(copy);
+            }
+
+            @Override
+            public void leave(XmlNode node, int depth) {
+                copies.pop();
+            }
+        });
+        return result[0];
     }
 
     // --- Getters & Setters ---
 
     public String getTagName() {
-        return tagName;
+        return doc != null ? doc.tagName(ref) : tagName;
     }
 
     public String getId() {
-        return id;
+        return doc != null ? doc.id(ref) : id;
     }
 
     public void setId(String id) {
-        this.id = id;
+        if (doc != null) {
+            doc.setId(ref, id);
+        } else {
+            this.id = id;
+        }
     }
 
     public String getTextContent() {
-        return textContent;
+        return doc != null ? doc.text(ref) : textContent;
     }
 
     public void setTextContent(String textContent) {
-        if (!children.isEmpty()) {
+        if (!isLeaf()) {
             throw new IllegalStateException("不支持混合内容：有子节点的元素不能设置文本");
         }
-        this.textContent = textContent;
+        if (doc != null) {
+            doc.setText(ref, textContent);
+        } else {
+            this.textContent = textContent;
+        }
     }
 
+    /**
+     * 子节点列表；对象节点返回内部列表，视图返回沿兄弟链访问的只读列表（修改时抛出 UnsupportedOperationException）
+     * 增删子节点应使用 addChild / insertBefore / removeChild，直接修改列表不会维护父节点引用
+     */
     public List<XmlNode> getChildren() {
-        return children;
+        return doc != null ? new CompactChildren() : children;
     }
 
     public XmlNode getParent() {
-        return parent;
+        return doc != null ? doc.view(doc.parent(ref)) : parent;
+    }
+
+    /**
+     * 下一个兄弟节点（没有时返回 null）；紧凑文档中为 O(1)，对象节点通过所在的块定位
+     */
+    public XmlNode getNextSibling() {
+        if (doc != null) {
+            return doc.view(doc.nextSibling(ref));
+        }
+        if (parent == null) {
+            return null;
+        }
+        int index = parent.children.indexOf(this);
+        return index + 1 < parent.children.size() ? parent.children.get(index + 1) : null;
+    }
+
+    // --- 视图的相等性：同一文档中的同一元素 ---
+
+    @Override
+    public boolean equals(Object o) {
+        if (doc == null || !(o instanceof XmlNode)) {
+            return this == o;
+        }
+        XmlNode other = (XmlNode) o;
+        return other.doc == doc && other.ref == ref;
+    }
+
+    @Override
+    public int hashCode() {
+        return doc == null ? System.identityHashCode(this) : ref;
+    }
+
+    /**
+     * 视图的只读子节点列表：沿 firstChild / nextSibling / prevSibling 链访问（修改请用 addChild 等方法）
+     * 记住上次访问的位置，按下标顺序访问（正向或反向）每次只移动一步；size 在文档结构未修改时只计算一次
+     */
+    private final class CompactChildren extends AbstractList<XmlNode> {
+        private int expectedModCount = doc.modCount();
+        private int size = -1;                         // 未计算时为 -1
+        private int cursor = CompactXmlDocument.NONE; // 上次访问的子节点
+        private int cursorIndex;
+
+        /**
+         * 文档结构变化后丢弃缓存的长度和位置
+         */
+        private void sync() {
+            if (expectedModCount != doc.modCount()) {
+                expectedModCount = doc.modCount();
+                size = -1;
+                cursor = CompactXmlDocument.NONE;
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return doc.firstChild(ref) == CompactXmlDocument.NONE;
+        }
+
+        @Override
+        public int size() {
+            sync();
+            if (size < 0) {
+                int n = 0;
+                for (int c = doc.firstChild(ref); c != CompactXmlDocument.NONE; c = doc.nextSibling(c)) {
+                    n++;
+                }
+                size = n;
+            }
+            return size;
+        }
+
+        @Override
+        public XmlNode get(int index) {
+            sync();
+            int first = doc.firstChild(ref);
+            if (index < 0 || first == CompactXmlDocument.NONE || (size >= 0 && index >= size)) {
+                throw new IndexOutOfBoundsException("Index: " + index);
+            }
+            // 从最近的已知位置出发：第一个、最后一个（已知长度时）或上次访问的子节点
+            int c = first;
+            int i = 0;
+            if (size >= 0 && size - 1 - index < index) {
+                c = doc.prevSibling(first);
+                i = size - 1;
+            }
+            if (cursor != CompactXmlDocument.NONE && Math.abs(cursorIndex - index) < Math.abs(i - index)) {
+                c = cursor;
+                i = cursorIndex;
+            }
+            while (i < index) {
+                c = doc.nextSibling(c);
+                i++;
+                if (c == CompactXmlDocument.NONE) {
+                    size = i;
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+            }
+            while (i > index) {
+                c = doc.prevSibling(c);
+                i--;
+            }
+            cursor = c;
+            cursorIndex = i;
+            return doc.view(c);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return o instanceof XmlNode ? getChildIndex((XmlNode) o) : -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return indexOf(o); // 同一节点在列表中至多出现一次
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        /**
+         * 沿兄弟链遍历，不按下标定位
+         */
+        @Override
+        public Iterator<XmlNode> iterator() {
+            return new Iterator<>() {
+                private int next = doc.firstChild(ref);
+
+                @Override
+                public boolean hasNext() {
+                    return next != CompactXmlDocument.NONE;
+                }
+
+                @Override
+                public XmlNode next() {
+                    if (next == CompactXmlDocument.NONE) {
+                        throw new NoSuchElementException();
+                    }
+                    int current = next;
+                    next = doc.nextSibling(current);
+                    return doc.view(current);
+                }
+            };
+        }
     }
 }
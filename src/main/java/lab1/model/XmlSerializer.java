@@ -0,0 +1,118 @@
+package lab1.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * XML 序列化器 - 一次遍历直接写入 Writer
+ * 不为每个节点生成中间字符串，输出格式与原 toXmlString 一致（两空格缩进）
+ */
+public class XmlSerializer {
+    private static final char[] SPACES = "                                                                ".toCharArray();
+
+    private final Writer out;
+
+    public XmlSerializer(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * 序列化以 node 为根的子树（调用方负责 flush/close）
+     */
+    public void write(XmlNode node) throws IOException {
+        try {
+            XmlTraversal.walk(node, new XmlTraversal.Visitor() {
+                @Override
+                public void enter(XmlNode current, int depth) {
+                    try {
+                        open(current, depth);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void leave(XmlNode current, int depth) {
+                    try {
+                        close(current, depth);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 开始标签；叶子节点紧接着输出文本，有子节点时换行（不支持混合内容，两者不会同时出现）
+     */
+    private void open(XmlNode node, int depth) throws IOException {
+        indent(depth);
+        out.write('<');
+        out.write(node.getTagName());
+        out.write(" id=\"");
+        escape(node.getId(), true);
+        out.write("\">");
+        if (!node.isLeaf()) {
+            out.write('\n');
+            return;
+        }
+        String text = node.getTextContent();
+        if (text != null) {
+            escape(text, false);
+        }
+    }
+
+    private void close(XmlNode node, int depth) throws IOException {
+        if (!node.isLeaf()) {
+            indent(depth);
+        }
+        out.write("</");
+        out.write(node.getTagName());
+        out.write(">\n");
+    }
+
+    private void indent(int depth) throws IOException {
+        int remaining = depth * 2;
+        while (remaining > 0) {
+            int n = Math.min(remaining, SPACES.length);
+            out.write(SPACES, 0, n);
+            remaining -= n;
+        }
+    }
+
+    /**
+     * 转义特殊字符，未转义的连续片段整段写出
+     */
+    private void escape(String s, boolean attribute) throws IOException {
+        int runStart = 0;
+        for (int i = 0; i < s.length(); i++) {
+            String entity;
+            switch (s.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = attribute ? "&quot;" : null;
+                    break;
+                default:
+                    entity = null;
+            }
+            if (entity != null) {
+                out.write(s, runStart, i - runStart);
+                out.write(entity);
+                runStart = i + 1;
+            }
+        }
+        out.write(s, runStart, s.length() - runStart);
+    }
+}
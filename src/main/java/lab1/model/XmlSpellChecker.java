@@ -0,0 +1,244 @@
+package lab1.model;
+
+import lab1.utils.SpellChecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * XML 文件的拼写检查
+ * 错误位置为（元素 id, 节点文本内的偏移）。每个节点的结果按节点缓存，
+ * XmlEditor 的各编辑操作（与作废 XmlFragmentCache 的位置相同）把文本变化的节点标记为脏、
+ * 把删除的子树移出缓存，检查时只处理脏节点，不再遍历整棵树比较文本
+ */
+public class XmlSpellChecker implements SpellCheckSession {
+    private final XmlEditor editor;
+    private final SpellChecker checker;
+    private final ParallelSpellChecker parallel;
+
+    // 节点 -> 检查结果（不含元素 id，改 id 无需重新检查）；文本变化的节点不在其中
+    private final Map<XmlNode, List<SpellChecker.SpellingError>> cache = new HashMap<>();
+    private final Set<XmlNode> errorNodes = new HashSet<>(); // 结果非空的节点
+    private final Set<XmlNode> dirty = new LinkedHashSet<>(); // 待检查的文本节点
+    private XmlNode lastChanged; // 最近一次编辑的节点，后台检查优先处理
+    private int lastCheckedNodes;
+
+    public XmlSpellChecker(XmlEditor editor, SpellChecker checker) {
+        this.editor = editor;
+        this.checker = checker;
+        this.parallel = new ParallelSpellChecker(checker);
+        editor.forEachText(dirty::add);
+    }
+
+    /**
+     * 检查所有文本节点（错误按文档顺序），只重新检查文本变化过的节点
+     */
+    public List<SpellChecker.SpellingError> check() {
+        List<XmlNode> nodes = new ArrayList<>(dirty);
+        List<String> texts = new ArrayList<>(nodes.size());
+        for (XmlNode node : nodes) {
+            texts.add(node.getTextContent());
+        }
+        List<List<SpellChecker.SpellingError>> results;
+        if (nodes.size() >= ParallelSpellChecker.TEXTS_PER_TASK) {
+            results = parallel.checkTexts(texts);
+        } else {
+            results = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                results.add(checker.check(text));
+            }
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            put(nodes.get(i), results.get(i));
+        }
+        dirty.clear();
+        lastCheckedNodes = nodes.size();
+        return currentErrors();
+    }
+
+    public SpellChecker getChecker() {
+        return checker;
+    }
+
+    /**
+     * 上一次 check() 实际重新检查的节点数
+     */
+    public int getLastCheckedNodes() {
+        return lastCheckedNodes;
+    }
+
+    // --- 编辑通知（由 XmlEditor 调用） ---
+
+    /**
+     * 节点的文本被修改
+     */
+    void textChanged(XmlNode node) {
+        forget(node);
+        if (node.getTextContent() != null) {
+            dirty.add(node);
+            lastChanged = node;
+        }
+    }
+
+    /**
+     * 插入了新节点或恢复了已删除的子树：其中的文本节点都需要检查
+     */
+    void subtreeAdded(XmlNode subtree) {
+        for (XmlNode node : XmlTraversal.preOrder(subtree)) {
+            textChanged(node);
+        }
+    }
+
+    /**
+     * 子树被删除：丢弃其中节点的结果和待检查标记
+     */
+    void subtreeRemoved(XmlNode subtree) {
+        for (XmlNode node : XmlTraversal.preOrder(subtree)) {
+            forget(node);
+            dirty.remove(node);
+        }
+    }
+
+    /**
+     * 整个文档被替换
+     */
+    void reset() {
+        cache.clear();
+        errorNodes.clear();
+        dirty.clear();
+        lastChanged = null;
+        editor.forEachText(dirty::add);
+    }
+
+    // --- SpellCheckSession ---
+
+    @Override
+    public Snapshot snapshot(int limit) {
+        List<XmlNode> nodes = new ArrayList<>(Math.min(limit, dirty.size()));
+        if (lastChanged != null && dirty.contains(lastChanged) && limit > 0) {
+            nodes.add(lastChanged);
+        }
+        for (Iterator<XmlNode> it = dirty.iterator(); it.hasNext() && nodes.size() < limit; ) {
+            XmlNode node = it.next();
+            if (!node.equals(lastChanged)) {
+                nodes.add(node);
+            }
+        }
+        Object[] keys = nodes.toArray();
+        String[] texts = new String[keys.length];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = nodes.get(i).getTextContent();
+        }
+        return new Snapshot(0, keys, texts);
+    }
+
+    @Override
+    public void apply(Snapshot snapshot, List<List<SpellChecker.SpellingError>> results) {
+        // 快照之后被删除（已不在 dirty 中）或文本又变了的节点丢弃结果
+        for (int i = 0; i < results.size(); i++) {
+            XmlNode node = (XmlNode) snapshot.keys[i];
+            if (dirty.contains(node) && snapshot.texts[i].equals(node.getTextContent())) {
+                put(node, results.get(i));
+                dirty.remove(node);
+            }
+        }
+    }
+
+    @Override
+    public List<SpellChecker.SpellingError> currentErrors() {
+        List<SpellChecker.SpellingError> errors = new ArrayList<>();
+        for (XmlNode node : inDocumentOrder(errorNodes)) {
+            for (SpellChecker.SpellingError error : cache.get(node)) {
+                errors.add(error.inElement(node.getId()));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public int pendingCount() {
+        return dirty.size();
+    }
+
+    private void put(XmlNode node, List<SpellChecker.SpellingError> errors) {
+        cache.put(node, errors);
+        if (!errors.isEmpty()) {
+            errorNodes.add(node);
+        }
+    }
+
+    private void forget(XmlNode node) {
+        if (cache.remove(node) != null) {
+            errorNodes.remove(node);
+        }
+    }
+
+    // --- 文档顺序 ---
+
+    /**
+     * 按文档顺序排列节点：比较从根到各节点的子节点下标路径，只访问这些节点的祖先，不遍历整棵树
+     */
+    private static List<XmlNode> inDocumentOrder(Collection<XmlNode> nodes) {
+        // 父节点 -> 需要下标的子节点（各节点及其祖先）
+        Map<XmlNode, Set<XmlNode>> wanted = new LinkedHashMap<>();
+        for (XmlNode node : nodes) {
+            for (XmlNode n = node; n.getParent() != null; n = n.getParent()) {
+                if (!wanted.computeIfAbsent(n.getParent(), p -> new HashSet<>()).add(n)) {
+                    break; // 更上层的祖先已经记录过
+                }
+            }
+        }
+        Map<XmlNode, Integer> positions = new HashMap<>();
+        for (Map.Entry<XmlNode, Set<XmlNode>> entry : wanted.entrySet()) {
+            childPositions(entry.getKey(), entry.getValue(), positions);
+        }
+
+        Map<XmlNode, int[]> paths = new HashMap<>(nodes.size() * 2);
+        for (XmlNode node : nodes) {
+            int depth = 0;
+            for (XmlNode n = node; n.getParent() != null; n = n.getParent()) {
+                depth++;
+            }
+            int[] path = new int[depth];
+            for (XmlNode n = node; n.getParent() != null; n = n.getParent()) {
+                path[--depth] = positions.get(n);
+            }
+            paths.put(node, path);
+        }
+        List<XmlNode> sorted = new ArrayList<>(nodes);
+        // 祖先的路径是后代路径的前缀，按字典序比较即为先序
+        sorted.sort((a, b) -> Arrays.compare(paths.get(a), paths.get(b)));
+        return sorted;
+    }
+
+    /**
+     * 子节点在父节点中的下标：对象节点直接定位；紧凑 DOM 需要沿兄弟链计数，
+     * 同一父节点下的多个子节点一次数出，数到最后一个就停
+     */
+    private static void childPositions(XmlNode parent, Set<XmlNode> children, Map<XmlNode, Integer> positions) {
+        if (parent.doc == null) {
+            for (XmlNode child : children) {
+                positions.put(child, parent.getChildIndex(child));
+            }
+            return;
+        }
+        int index = 0;
+        int found = 0;
+        for (Iterator<XmlNode> it = parent.getChildren().iterator(); it.hasNext() && found < children.size(); index++) {
+            XmlNode child = it.next();
+            if (children.contains(child)) {
+                positions.put(child, index);
+                found++;
+            }
+        }
+    }
+}
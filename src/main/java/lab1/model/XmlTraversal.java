@@ -0,0 +1,176 @@
+package lab1.model;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * XML 树遍历引擎 - 显式栈，不使用递归
+ * 嵌套很深的文档（几万层）不会 StackOverflowError；栈中只保存当前路径上各层的子节点迭代器。
+ * 提供先序 / 后序迭代器和带进入 / 离开回调的访问者，树上的整体操作（查找、序列化、克隆、索引等）都基于它
+ */
+public final class XmlTraversal {
+
+    private XmlTraversal() {
+    }
+
+    /**
+     * 访问者：进入节点时调用 enter（先序），其子树全部访问完后调用 leave（后序）
+     * descend 在 enter 之后调用，返回 false 时跳过该节点的子树（leave 仍会调用）
+     */
+    public interface Visitor {
+        void enter(XmlNode node, int depth);
+
+        default boolean descend(XmlNode node) {
+            return true;
+        }
+
+        default void leave(XmlNode node, int depth) {
+        }
+    }
+
+    /**
+     * 深度优先访问以 root 为根的子树（root 的深度为 0）
+     */
+    public static void walk(XmlNode root, Visitor visitor) {
+        Deque<XmlNode> nodes = new ArrayDeque<>();
+        Deque<Iterator<XmlNode>> pending = new ArrayDeque<>();
+        visitor.enter(root, 0);
+        Iterator<XmlNode> first = visitor.descend(root) ? childIterator(root) : null;
+        if (first == null) {
+            visitor.leave(root, 0);
+            return;
+        }
+        nodes.push(root);
+        pending.push(first);
+        while (!pending.isEmpty()) {
+            Iterator<XmlNode> siblings = pending.peek();
+            if (!siblings.hasNext()) {
+                pending.pop();
+                visitor.leave(nodes.pop(), pending.size());
+                continue;
+            }
+            XmlNode node = siblings.next();
+            int depth = pending.size();
+            visitor.enter(node, depth);
+            Iterator<XmlNode> grandchildren = visitor.descend(node) ? childIterator(node) : null;
+            if (grandchildren != null) {
+                nodes.push(node);
+                pending.push(grandchildren);
+            } else {
+                // 叶子不入栈
+                visitor.leave(node, depth);
+            }
+        }
+    }
+
+    /**
+     * 子节点的迭代器，没有子节点时返回 null（叶子占大多数，不为它们创建迭代器）
+     */
+    private static Iterator<XmlNode> childIterator(XmlNode node) {
+        List<XmlNode> children = node.getChildren();
+        return children.isEmpty() ? null : children.iterator();
+    }
+
+    /**
+     * 先序遍历（父节点先于子节点，即文档顺序）
+     */
+    public static Iterable<XmlNode> preOrder(XmlNode root) {
+        return () -> new Iterator<>() {
+            private final Deque<Iterator<XmlNode>> pending = new ArrayDeque<>();
+            private XmlNode next = root;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public XmlNode next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                XmlNode current = next;
+                Iterator<XmlNode> children = childIterator(current);
+                if (children != null) {
+                    pending.push(children);
+                }
+                next = advance();
+                return current;
+            }
+
+            private XmlNode advance() {
+                while (!pending.isEmpty()) {
+                    Iterator<XmlNode> siblings = pending.peek();
+                    if (siblings.hasNext()) {
+                        XmlNode node = siblings.next();
+                        if (!siblings.hasNext()) {
+                            pending.pop(); // 最后一个兄弟，提前出栈
+                        }
+                        return node;
+                    }
+                    pending.pop();
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * 后序遍历（子节点先于父节点）
+     */
+    public static Iterable<XmlNode> postOrder(XmlNode root) {
+        return () -> new Iterator<>() {
+            private final Deque<XmlNode> nodes = new ArrayDeque<>();
+            private final Deque<Iterator<XmlNode>> pending = new ArrayDeque<>();
+            private XmlNode next;
+
+            {
+                descend(root);
+                next = nodes.pop();
+            }
+
+            /**
+             * 从 node 沿第一个子节点一直走到叶子，路径上的节点入栈
+             */
+            private void descend(XmlNode node) {
+                while (true) {
+                    nodes.push(node);
+                    Iterator<XmlNode> children = node.getChildren().iterator();
+                    if (!children.hasNext()) {
+                        pending.push(Collections.emptyIterator());
+                        return;
+                    }
+                    pending.push(children);
+                    node = children.next();
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public XmlNode next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                XmlNode current = next;
+                pending.pop(); // current 的子节点已访问完
+                if (pending.isEmpty()) {
+                    next = null;
+                } else if (pending.peek().hasNext()) {
+                    descend(pending.peek().next());
+                    next = nodes.pop();
+                } else {
+                    next = nodes.pop();
+                }
+                return current;
+            }
+        };
+    }
+}
@@ -0,0 +1,333 @@
+package lab1.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 基于词典文件的拼写检查器
+ * 词典以紧凑的有序数组保存：所有单词（小写）首尾相接放进一个 byte[]，
+ * 另用 int[] 记录每个单词的起始位置。查找为二分查找，不分配对象；
+ * 构造完成后数据不再修改，多个线程可以无锁并发查询
+ */
+public class DictionarySpellChecker implements SpellChecker {
+    private final byte[] pool;       // 单词字节池（ASCII 小写，按字典序排列）
+    private final int[] offsets;     // 第 i 个单词为 pool[offsets[i], offsets[i + 1])
+    private final int[] frequencies; // 词频（词典未给出时为 1），用于建议排序
+
+    // 拼写建议索引在第一次需要建议时才构建
+    private volatile int maxEditDistance = SymSpellSuggester.DEFAULT_MAX_DISTANCE;
+    private volatile SymSpellSuggester suggester;
+
+    private DictionarySpellChecker(byte[] pool, int[] offsets, int[] frequencies) {
+        this.pool = pool;
+        this.offsets = offsets;
+        this.frequencies = frequencies;
+    }
+
+    /**
+     * 从词典文件加载：每行一个单词，可选地跟一个词频（"word 123"）
+     * 只收录 ASCII 单词（分词器只会产生 ASCII 字母组成的单词）
+     */
+    public static DictionarySpellChecker load(Path path) throws IOException {
+        byte[] data = Files.readAllBytes(path);
+        Builder builder = new Builder(data.length);
+        int lineStart = 0;
+        for (int i = 0; i <= data.length; i++) {
+            if (i == data.length || data[i] == '\n') {
+                builder.add(data, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 从单词集合构建（用于测试或内置词表）
+     */
+    public static DictionarySpellChecker of(Collection<String> words) {
+        Builder builder = new Builder(words.size() * 8);
+        for (String word : words) {
+            byte[] bytes = new byte[word.length()];
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                bytes[i] = c < 0x80 ? (byte) c : (byte) 0x80;
+            }
+            builder.add(bytes, 0, bytes.length);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public List<SpellingError> check(String text) {
+        List<SpellingError> errors = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return errors;
+        }
+        WordScanner scanner = new WordScanner().reset(text);
+        while (scanner.next()) {
+            if (!contains(text, scanner.start(), scanner.end())) {
+                String word = scanner.word();
+                errors.add(new SpellingError(word, suggester().suggest(word), scanner.start()));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * 大小写不敏感地判断单词是否在词典中
+     */
+    public boolean contains(CharSequence word) {
+        return contains(word, 0, word.length());
+    }
+
+    /**
+     * 判断 s[start, end) 是否在词典中（大小写不敏感，不创建字符串）
+     */
+    public boolean contains(CharSequence s, int start, int end) {
+        int lo = 0;
+        int hi = size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(mid, s, start, end);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 词典中的单词数
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * 第 index 个单词（按字典序）
+     */
+    public String wordAt(int index) {
+        return new String(pool, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 第 index 个单词的词频
+     */
+    public int frequency(int index) {
+        return frequencies[index];
+    }
+
+    /**
+     * 字节池、偏移表和词频表占用的内存（字节）
+     */
+    public long memoryBytes() {
+        return pool.length + 4L * offsets.length + 4L * frequencies.length;
+    }
+
+    /**
+     * 设置拼写建议的最大编辑距离（下次需要建议时重建索引）
+     */
+    public synchronized void setMaxEditDistance(int maxEditDistance) {
+        SymSpellSuggester.checkDistance(maxEditDistance);
+        if (maxEditDistance != this.maxEditDistance) {
+            this.maxEditDistance = maxEditDistance;
+            suggester = null;
+        }
+    }
+
+    /**
+     * 拼写建议引擎（首次调用时构建）
+     */
+    public SymSpellSuggester suggester() {
+        SymSpellSuggester s = suggester;
+        if (s == null) {
+            synchronized (this) {
+                s = suggester;
+                if (s == null) {
+                    s = new SymSpellSuggester(this, maxEditDistance, SymSpellSuggester.DEFAULT_CACHE_SIZE);
+                    suggester = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    // --- 供建议引擎直接读取字节池，避免为每个候选词创建字符串 ---
+
+    int wordStart(int index) {
+        return offsets[index];
+    }
+
+    int wordEnd(int index) {
+        return offsets[index + 1];
+    }
+
+    int byteAt(int position) {
+        return pool[position];
+    }
+
+    private int compare(int index, CharSequence s, int start, int end) {
+        int p = offsets[index];
+        int pEnd = offsets[index + 1];
+        int q = start;
+        while (p < pEnd && q < end) {
+            int a = pool[p] & 0xFF;
+            int b = toLower(s.charAt(q));
+            if (a != b) {
+                return a - b;
+            }
+            p++;
+            q++;
+        }
+        return (pEnd - p) - (end - q);
+    }
+
+    private static int toLower(char c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    /**
+     * 构建器：收集小写单词，必要时排序去重，最后打包成紧凑数组
+     */
+    private static class Builder {
+        private byte[] pool;
+        private int[] offsets = new int[1024];
+        private int[] frequencies = new int[1024];
+        private int count;
+        private int used;
+        private boolean sorted = true;
+
+        Builder(int capacity) {
+            pool = new byte[Math.max(16, capacity)];
+        }
+
+        void add(byte[] data, int from, int to) {
+            // 去掉行首空白，取第一个空白之前的内容作为单词
+            while (from < to && isSpace(data[from])) {
+                from++;
+            }
+            int end = from;
+            while (end < to && !isSpace(data[end])) {
+                end++;
+            }
+            if (end == from) {
+                return;
+            }
+            for (int i = from; i < end; i++) {
+                if (data[i] < 0) {
+                    return; // 非 ASCII 单词不会被查询到，直接跳过
+                }
+            }
+            ensureCapacity(end - from);
+            int start = used;
+            for (int i = from; i < end; i++) {
+                pool[used++] = (byte) toLower((char) data[i]);
+            }
+            frequencies[count] = parseFrequency(data, end, to);
+            offsets[count++] = start;
+            if (count > 1 && compareStored(count - 2, count - 1) > 0) {
+                sorted = false;
+            }
+        }
+
+        DictionarySpellChecker build() {
+            offsets[count] = used;
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            if (!sorted) {
+                // 常见的词表文件本身已排序，只有乱序输入才需要排序
+                Integer[] boxed = new Integer[count];
+                for (int i = 0; i < count; i++) {
+                    boxed[i] = i;
+                }
+                Arrays.sort(boxed, this::compareStored);
+                for (int i = 0; i < count; i++) {
+                    order[i] = boxed[i];
+                }
+            }
+
+            byte[] packed = new byte[used];
+            int[] packedOffsets = new int[count + 1];
+            int[] packedFrequencies = new int[count];
+            int n = 0;
+            int pos = 0;
+            for (int k = 0; k < count; k++) {
+                int i = order[k];
+                if (k > 0 && compareStored(order[k - 1], i) == 0) {
+                    // 重复单词：保留较大的词频
+                    packedFrequencies[n - 1] = Math.max(packedFrequencies[n - 1], frequencies[i]);
+                    continue;
+                }
+                int len = offsets[i + 1] - offsets[i];
+                System.arraycopy(pool, offsets[i], packed, pos, len);
+                packedFrequencies[n] = frequencies[i];
+                packedOffsets[n++] = pos;
+                pos += len;
+            }
+            packedOffsets[n] = pos;
+            return new DictionarySpellChecker(Arrays.copyOf(packed, pos),
+                    Arrays.copyOf(packedOffsets, n + 1), Arrays.copyOf(packedFrequencies, n));
+        }
+
+        /**
+         * 比较已收集的第 i、j 个单词（第 count-1 个单词的结尾为 used）
+         */
+        private int compareStored(int i, int j) {
+            int a = offsets[i];
+            int aEnd = i + 1 < count ? offsets[i + 1] : used;
+            int b = offsets[j];
+            int bEnd = j + 1 < count ? offsets[j + 1] : used;
+            while (a < aEnd && b < bEnd) {
+                int diff = (pool[a] & 0xFF) - (pool[b] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+                a++;
+                b++;
+            }
+            return (aEnd - a) - (bEnd - b);
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (used + bytes > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(pool.length * 2, used + bytes));
+            }
+            if (count + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                frequencies = Arrays.copyOf(frequencies, offsets.length);
+            }
+        }
+
+        /**
+         * 解析单词后面的词频列，缺省或无法解析时为 1
+         */
+        private static int parseFrequency(byte[] data, int from, int to) {
+            while (from < to && isSpace(data[from])) {
+                from++;
+            }
+            long value = 0;
+            int i = from;
+            while (i < to && data[i] >= '0' && data[i] <= '9') {
+                value = Math.min(Integer.MAX_VALUE, value * 10 + (data[i] - '0'));
+                i++;
+            }
+            return i == from ? 1 : (int) Math.max(1, value);
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+    }
+}
@@ -1,36 +1,64 @@
 package lab1.utils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * 命令日志 - 异步追加写入
+ * 调用线程只负责格式化并放入有界队列；后台线程批量取出，
+ * 按日志文件分组后一次写入（group commit），日志文件通道保持打开
+ */
 public class Logger {
-    private static final SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd HH:mm:ss");
-    private static boolean sessionStarted = false;
+    // DateTimeFormatter 不可变，线程安全
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd HH:mm:ss");
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int BATCH_SIZE = 256;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicBoolean sessionStarted = new AtomicBoolean(false);
+    private static Thread writerThread;
+    private static boolean shutdownHookRegistered = false;
 
     public static void log(String filename, String command) {
         if (filename == null) {return;}
         String logFile = "." + filename + ".log";
-        String timestamp = sdf.format(new Date());
+        String timestamp = LocalDateTime.now().format(FORMATTER);
 
         StringBuilder sb = new StringBuilder();
-        if (!sessionStarted) {
+        if (sessionStarted.compareAndSet(false, true)) {
             sb.append("session start at ").append(timestamp).append("\n");
-            sessionStarted = true;
         }
         sb.append(timestamp).append(" ").append(command).append("\n");
 
+        ensureWriterStarted();
         try {
-            Files.writeString(Paths.get(logFile), sb.toString(), StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            System.err.println("日志写入失败 (忽略): " + e.getMessage());
+            // 队列满时阻塞等待，保证日志不丢
+            queue.put(new Entry(logFile, sb.toString(), null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("日志写入失败 (忽略): 被中断");
         }
     }
 
     public static void showLog(String filename) {
+        // 先等待队列中的日志落盘，否则可能看不到刚执行的命令
+        flush();
         String logFile = "." + filename + ".log";
         try {
             if (Files.exists(Paths.get(logFile))) {
@@ -42,4 +70,164 @@ public class Logger {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 等待此前提交的所有日志写入文件
+     */
+    public static void flush() {
+        awaitMarker(Entry.FLUSH);
+    }
+
+    /**
+     * 写完剩余日志、关闭所有日志文件并停止后台线程（退出时调用）
+     */
+    public static void shutdown() {
+        awaitMarker(Entry.STOP);
+    }
+
+    private static void awaitMarker(String kind) {
+        synchronized (Logger.class) {
+            if (writerThread == null) {
+                if (queue.isEmpty()) {
+                    return;
+                }
+                startWriter();
+            }
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            queue.put(new Entry(kind, null, done));
+            done.await(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized void ensureWriterStarted() {
+        if (writerThread == null) {
+            startWriter();
+        }
+    }
+
+    private static synchronized void startWriter() {
+        writerThread = new Thread(Logger::writeLoop, "command-logger");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        if (!shutdownHookRegistered) {
+            // 兜底：即使没有执行 exit 命令，JVM 退出前也会写完队列
+            Runtime.getRuntime().addShutdownHook(new Thread(Logger::shutdown, "command-logger-shutdown"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * 写线程退出时清除引用，之后的日志会启动新的写线程
+     */
+    private static synchronized void writerStopped() {
+        if (writerThread == Thread.currentThread()) {
+            writerThread = null;
+        }
+    }
+
+    // --- 后台写线程 ---
+
+    private static void writeLoop() {
+        Map<String, FileChannel> channels = new HashMap<>();
+        try {
+            writeBatches(channels);
+        } finally {
+            writerStopped();
+            closeAll(channels);
+        }
+    }
+
+    private static void writeBatches(Map<String, FileChannel> channels) {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+
+            // 按日志文件分组，每个文件每批只写一次
+            Map<String, StringBuilder> grouped = new LinkedHashMap<>();
+            for (Entry entry : batch) {
+                if (entry.done == null) {
+                    grouped.computeIfAbsent(entry.logFile, k -> new StringBuilder()).append(entry.text);
+                }
+            }
+            for (Map.Entry<String, StringBuilder> group : grouped.entrySet()) {
+                write(channels, group.getKey(), group.getValue());
+            }
+
+            for (Entry entry : batch) {
+                if (entry.done != null) {
+                    if (Entry.STOP.equals(entry.logFile)) {
+                        closeAll(channels);
+                        writerStopped();
+                        running = false;
+                    }
+                    entry.done.countDown();
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private static void write(Map<String, FileChannel> channels, String logFile, CharSequence text) {
+        try {
+            FileChannel channel = channels.get(logFile);
+            if (channel == null) {
+                channel = FileChannel.open(Paths.get(logFile), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                channels.put(logFile, channel);
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            System.err.println("日志写入失败 (忽略): " + e.getMessage());
+            closeQuietly(channels.remove(logFile));
+        }
+    }
+
+    private static void closeAll(Map<String, FileChannel> channels) {
+        for (FileChannel channel : channels.values()) {
+            closeQuietly(channel);
+        }
+        channels.clear();
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 关闭失败不影响后续日志
+        }
+    }
+
+    /**
+     * 队列元素：普通日志，或带 latch 的 flush/stop 标记
+     */
+    private static class Entry {
+        static final String FLUSH = "<flush>";
+        static final String STOP = "<stop>";
+
+        final String logFile;
+        final String text;
+        final CountDownLatch done;
+
+        Entry(String logFile, String text, CountDownLatch done) {
+            this.logFile = logFile;
+            this.text = text;
+            this.done = done;
+        }
+    }
+}
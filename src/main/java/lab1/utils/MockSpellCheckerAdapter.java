@@ -5,8 +5,6 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 模拟拼写检查器适配器 - Adapter 模式
@@ -36,29 +34,29 @@ public class MockSpellCheckerAdapter implements SpellChecker {
         COMMON_ERRORS.put("neccessary", Arrays.asList("necessary"));
     }
 
+    // 错误词（小写）的哈希，升序排列；正确的单词只需一次二分查找即可排除
+    private static volatile int[] errorHashes = sortedHashes();
+
     @Override
     public List<SpellingError> check(String text) {
         List<SpellingError> errors = new ArrayList<>();
 
-        if (text == null || text.trim().isEmpty()) {
+        if (text == null) {
             return errors;
         }
 
-        // 使用正则表达式提取单词
-        Pattern wordPattern = Pattern.compile("\\b[a-zA-Z]+\\b");
-        Matcher matcher = wordPattern.matcher(text);
-
-        while (matcher.find()) {
-            String word = matcher.group();
-            String lowerWord = word.toLowerCase();
-
-            // 检查是否是已知的拼写错误
-            if (COMMON_ERRORS.containsKey(lowerWord)) {
-                SpellingError error = new SpellingError(
-                        word,
-                        COMMON_ERRORS.get(lowerWord),
-                        matcher.start());
-                errors.add(error);
+        int[] hashes = errorHashes;
+        WordScanner scanner = new WordScanner().reset(text);
+        while (scanner.next()) {
+            int start = scanner.start();
+            int end = scanner.end();
+            // 先用小写哈希探测，命中时才创建字符串并查表（哈希冲突由查表排除）
+            if (Arrays.binarySearch(hashes, lowerCaseHash(text, start, end)) >= 0) {
+                String word = text.substring(start, end);
+                List<String> suggestions = COMMON_ERRORS.get(word.toLowerCase());
+                if (suggestions != null) {
+                    errors.add(new SpellingError(word, suggestions, start));
+                }
             }
         }
 
@@ -68,7 +66,30 @@ public class MockSpellCheckerAdapter implements SpellChecker {
     /**
      * 添加自定义错误（用于测试）
      */
-    public static void addCustomError(String wrongWord, String... suggestions) {
+    public static synchronized void addCustomError(String wrongWord, String... suggestions) {
         COMMON_ERRORS.put(wrongWord.toLowerCase(), Arrays.asList(suggestions));
+        errorHashes = sortedHashes();
+    }
+
+    private static int[] sortedHashes() {
+        int[] hashes = new int[COMMON_ERRORS.size()];
+        int i = 0;
+        for (String word : COMMON_ERRORS.keySet()) {
+            hashes[i++] = word.hashCode();
+        }
+        Arrays.sort(hashes);
+        return hashes;
+    }
+
+    /**
+     * 与 s[start, end) 转为小写后的 String.hashCode() 相同（单词只含 ASCII 字母）
+     */
+    private static int lowerCaseHash(CharSequence s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            h = 31 * h + (c <= 'Z' ? c + ('a' - 'A') : c);
+        }
+        return h;
     }
 }
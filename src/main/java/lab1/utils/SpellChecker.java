@@ -22,11 +22,36 @@ public interface SpellChecker {
         private String word; // 错误的单词
         private List<String> suggestions; // 建议的修正
         private int position; // 错误位置
+        private int line; // 行号（从 1 开始，0 表示未知）
+        private int column; // 列号（从 1 开始）
+        private String elementId; // 所在 XML 元素的 id（文本文件为 null）
 
         public SpellingError(String word, List<String> suggestions, int position) {
+            this(word, suggestions, position, 0, position + 1);
+        }
+
+        public SpellingError(String word, List<String> suggestions, int position, int line, int column) {
             this.word = word;
             this.suggestions = suggestions;
             this.position = position;
+            this.line = line;
+            this.column = column;
+        }
+
+        /**
+         * 把单行检查的结果（position 为行内偏移）换算为 line:col
+         */
+        public SpellingError atLine(int line) {
+            return new SpellingError(word, suggestions, position, line, position + 1);
+        }
+
+        /**
+         * 把单个文本节点的检查结果（position 为节点文本内的偏移）标记为属于该元素
+         */
+        public SpellingError inElement(String elementId) {
+            SpellingError error = new SpellingError(word, suggestions, position);
+            error.elementId = elementId;
+            return error;
         }
 
         public String getWord() {
@@ -41,9 +66,29 @@ public interface SpellChecker {
             return position;
         }
 
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public String getElementId() {
+            return elementId;
+        }
+
         @Override
         public String toString() {
-            return "错误单词: \"" + word + "\" (位置: " + position + "), 建议: " + suggestions;
+            String where;
+            if (elementId != null) {
+                where = "元素 " + elementId + ", 偏移 " + position;
+            } else if (line > 0) {
+                where = line + ":" + column;
+            } else {
+                where = String.valueOf(position);
+            }
+            return "错误单词: \"" + word + "\" (位置: " + where + "), 建议: " + suggestions;
         }
     }
 }
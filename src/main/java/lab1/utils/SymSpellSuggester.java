@@ -0,0 +1,258 @@
+package lab1.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 拼写建议引擎 - 对称删除（SymSpell）算法
+ * 预先为词典中每个单词（的前缀）生成删去至多 maxDistance 个字符后的变体，
+ * 以变体哈希建立倒排索引；查询时只生成输入的删除变体并查表，
+ * 再用编辑距离校验候选词，不必与整个词典逐一比较
+ */
+public class SymSpellSuggester {
+    public static final int DEFAULT_MAX_DISTANCE = 2;
+    public static final int MAX_DISTANCE_LIMIT = 3;
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+    public static final int MAX_SUGGESTIONS = 5;
+
+    // 只对前 7 个字符生成删除变体，控制索引规模（更长的部分由编辑距离校验）
+    private static final int PREFIX_LENGTH = 7;
+
+    private final DictionarySpellChecker dictionary;
+    private final int maxDistance;
+    private final int maxVariants;
+
+    // 倒排索引（CSR 布局）：keys[i] 对应的单词下标为 postings[starts[i], starts[i + 1])
+    private final int[] keys;
+    private final int[] starts;
+    private final int[] postings;
+
+    private final Map<String, List<String>> cache;
+
+    public SymSpellSuggester(DictionarySpellChecker dictionary, int maxDistance, int cacheSize) {
+        checkDistance(maxDistance);
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("缓存大小不能为负数");
+        }
+        this.dictionary = dictionary;
+        this.maxDistance = maxDistance;
+        this.maxVariants = countVariants(PREFIX_LENGTH, maxDistance);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        // 收集 (变体哈希, 单词下标) 对，排序后压缩成倒排表
+        long[] pairs = new long[Math.max(16, dictionary.size() * 8)];
+        int count = 0;
+        char[] prefix = new char[PREFIX_LENGTH];
+        int[] hashes = new int[maxVariants];
+        for (int index = 0; index < dictionary.size(); index++) {
+            int start = dictionary.wordStart(index);
+            int len = Math.min(PREFIX_LENGTH, dictionary.wordEnd(index) - start);
+            for (int i = 0; i < len; i++) {
+                prefix[i] = (char) dictionary.byteAt(start + i);
+            }
+            int n = collectVariants(prefix, len, 0, 0, 0, hashes, 0);
+            if (count + n > pairs.length) {
+                pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, count + n));
+            }
+            for (int k = 0; k < n; k++) {
+                pairs[count++] = ((long) hashes[k] << 32) | index;
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+
+        int[] keyBuf = new int[count];
+        int[] startBuf = new int[count + 1];
+        int[] postingBuf = new int[count];
+        int keyCount = 0;
+        int postingCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue; // 同一单词的重复变体
+            }
+            int hash = (int) (pairs[i] >> 32);
+            if (keyCount == 0 || keyBuf[keyCount - 1] != hash) {
+                keyBuf[keyCount] = hash;
+                startBuf[keyCount++] = postingCount;
+            }
+            postingBuf[postingCount++] = (int) pairs[i];
+        }
+        startBuf[keyCount] = postingCount;
+        this.keys = Arrays.copyOf(keyBuf, keyCount);
+        this.starts = Arrays.copyOf(startBuf, keyCount + 1);
+        this.postings = Arrays.copyOf(postingBuf, postingCount);
+    }
+
+    /**
+     * 返回编辑距离不超过 maxDistance 的候选词：按距离升序、词频降序排列，最多 MAX_SUGGESTIONS 个
+     */
+    public List<String> suggest(String word) {
+        String key = word.toLowerCase(Locale.ROOT);
+        synchronized (cache) {
+            List<String> cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<String> result = Collections.unmodifiableList(lookup(key.toCharArray()));
+        synchronized (cache) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * 倒排索引中的变体数
+     */
+    public int indexedVariants() {
+        return keys.length;
+    }
+
+    /**
+     * 倒排索引占用的内存（字节）
+     */
+    public long memoryBytes() {
+        return 4L * (keys.length + starts.length + postings.length);
+    }
+
+    static void checkDistance(int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE_LIMIT) {
+            throw new IllegalArgumentException("最大编辑距离必须在 0 到 " + MAX_DISTANCE_LIMIT + " 之间");
+        }
+    }
+
+    // --- 查询 ---
+
+    private List<String> lookup(char[] input) {
+        int len = Math.min(PREFIX_LENGTH, input.length);
+        int[] hashes = new int[maxVariants];
+        int n = collectVariants(input, len, 0, 0, 0, hashes, 0);
+
+        int[] candidates = new int[16];
+        int count = 0;
+        for (int k = 0; k < n; k++) {
+            int slot = Arrays.binarySearch(keys, hashes[k]);
+            if (slot < 0) {
+                continue;
+            }
+            int from = starts[slot];
+            int to = starts[slot + 1];
+            if (count + (to - from) > candidates.length) {
+                candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, count + to - from));
+            }
+            System.arraycopy(postings, from, candidates, count, to - from);
+            count += to - from;
+        }
+        Arrays.sort(candidates, 0, count);
+
+        List<int[]> matches = new ArrayList<>(); // {单词下标, 编辑距离}
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && candidates[i] == candidates[i - 1]) {
+                continue;
+            }
+            int distance = distance(input, candidates[i]);
+            if (distance <= maxDistance) {
+                matches.add(new int[] { candidates[i], distance });
+            }
+        }
+        // 距离近的优先，其次词频高的优先，最后按字典序（下标即字典序）
+        matches.sort((a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1])
+                : dictionary.frequency(a[0]) != dictionary.frequency(b[0])
+                        ? Integer.compare(dictionary.frequency(b[0]), dictionary.frequency(a[0]))
+                        : Integer.compare(a[0], b[0]));
+
+        List<String> result = new ArrayList<>(Math.min(MAX_SUGGESTIONS, matches.size()));
+        for (int i = 0; i < matches.size() && i < MAX_SUGGESTIONS; i++) {
+            result.add(dictionary.wordAt(matches.get(i)[0]));
+        }
+        return result;
+    }
+
+    /**
+     * 输入与词典第 index 个单词的编辑距离（含相邻换位），超过 maxDistance 时提前返回 maxDistance + 1
+     */
+    private int distance(char[] a, int index) {
+        int start = dictionary.wordStart(index);
+        int bLen = dictionary.wordEnd(index) - start;
+        if (Math.abs(a.length - bLen) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] before = new int[bLen + 1];
+        int[] prev = new int[bLen + 1];
+        int[] cur = new int[bLen + 1];
+        for (int j = 0; j <= bLen; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length; i++) {
+            cur[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= bLen; j++) {
+                int bj = dictionary.byteAt(start + j - 1);
+                int cost = a[i - 1] == bj ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a[i - 1] == dictionary.byteAt(start + j - 2) && a[i - 2] == bj) {
+                    value = Math.min(value, before[j - 2] + 1);
+                }
+                cur[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] t = before;
+            before = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[bLen];
+    }
+
+    // --- 删除变体 ---
+
+    /**
+     * 枚举 s[0, len) 删去至多 maxDistance 个字符后的所有变体，把哈希写入 out，返回写入后的数量
+     */
+    private int collectVariants(char[] s, int len, int from, int deleted, int skipMask, int[] out, int n) {
+        out[n++] = hash(s, len, skipMask);
+        if (deleted == maxDistance) {
+            return n;
+        }
+        for (int i = from; i < len; i++) {
+            n = collectVariants(s, len, i + 1, deleted + 1, skipMask | (1 << i), out, n);
+        }
+        return n;
+    }
+
+    private static int hash(char[] s, int len, int skipMask) {
+        int h = 0x811C9DC5; // FNV-1a；冲突只会多出几个候选，由编辑距离校验过滤
+        for (int i = 0; i < len; i++) {
+            if ((skipMask & (1 << i)) == 0) {
+                h = (h ^ s[i]) * 16777619;
+            }
+        }
+        return h;
+    }
+
+    private static int countVariants(int len, int maxDistance) {
+        int total = 0;
+        int combinations = 1; // C(len, d)
+        for (int d = 0; d <= maxDistance; d++) {
+            total += combinations;
+            combinations = combinations * (len - d) / (d + 1);
+        }
+        return total;
+    }
+}
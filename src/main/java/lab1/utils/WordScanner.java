@@ -0,0 +1,111 @@
+package lab1.utils;
+
+/**
+ * 单词扫描器 - 拼写检查用的手写分词器
+ * 与正则 \b[a-zA-Z]+\b 的切分结果一致：连续的单词字符（字母、数字、'_'）
+ * 组成一段，只有整段都是 ASCII 字母时才作为单词返回。
+ * 只记录单词的起止位置，不创建字符串；同一个实例可以 reset 后重复使用
+ */
+public final class WordScanner {
+    private CharSequence text;
+    private int position;
+    private int limit;
+    private int wordStart;
+    private int wordEnd;
+
+    /**
+     * 扫描整段文本
+     */
+    public WordScanner reset(CharSequence text) {
+        return reset(text, 0, text.length());
+    }
+
+    /**
+     * 扫描 text[from, to)，区间边界视为单词边界
+     */
+    public WordScanner reset(CharSequence text, int from, int to) {
+        this.text = text;
+        this.position = from;
+        this.limit = to;
+        this.wordStart = -1;
+        this.wordEnd = -1;
+        return this;
+    }
+
+    /**
+     * 前进到下一个单词，没有更多单词时返回 false
+     */
+    public boolean next() {
+        while (position < limit) {
+            char c = text.charAt(position);
+            if (isAsciiLetter(c)) {
+                // 快速路径：纯 ASCII 字母
+                int start = position;
+                position++;
+                while (position < limit && isAsciiLetter(text.charAt(position))) {
+                    position++;
+                }
+                if (position == limit || !isWordChar(position, true)) {
+                    wordStart = start;
+                    wordEnd = position;
+                    return true;
+                }
+                skipWordRun(true); // 后面接着数字、'_' 或非 ASCII 字母：整段都不算单词
+            } else if (isWordChar(position, false)) {
+                skipWordRun(false);
+            } else {
+                position++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前单词的起始位置
+     */
+    public int start() {
+        return wordStart;
+    }
+
+    /**
+     * 当前单词的结束位置（不含）
+     */
+    public int end() {
+        return wordEnd;
+    }
+
+    /**
+     * 当前单词（只在需要时才创建字符串）
+     */
+    public String word() {
+        return text.subSequence(wordStart, wordEnd).toString();
+    }
+
+    private void skipWordRun(boolean afterLetterOrDigit) {
+        while (position < limit && isWordChar(position, afterLetterOrDigit)) {
+            int codePoint = Character.codePointAt(text, position);
+            if (Character.getType(codePoint) != Character.NON_SPACING_MARK) {
+                afterLetterOrDigit = Character.isLetterOrDigit(codePoint);
+            }
+            position += Character.charCount(codePoint);
+        }
+    }
+
+    /**
+     * 与正则的 \b 判定相同：字母、数字、'_' 是单词字符；
+     * 组合附加符号（如重音符）只有跟在字母或数字之后才算
+     */
+    private boolean isWordChar(int index, boolean afterLetterOrDigit) {
+        char c = text.charAt(index);
+        if (c < 0x80) {
+            return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '_';
+        }
+        int codePoint = Character.codePointAt(text, index);
+        return Character.isLetterOrDigit(codePoint)
+                || (afterLetterOrDigit && Character.getType(codePoint) == Character.NON_SPACING_MARK);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
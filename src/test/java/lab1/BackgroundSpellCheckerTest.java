@@ -0,0 +1,160 @@
+package lab1;
+
+import lab1.command.CommandHistory;
+import lab1.command.InsertCommand;
+import lab1.command.xml.EditTextCommand;
+import lab1.model.BackgroundSpellChecker;
+import lab1.model.Editor;
+import lab1.model.TextEditor;
+import lab1.model.XmlEditor;
+import lab1.utils.MockSpellCheckerAdapter;
+import lab1.utils.SpellChecker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 后台拼写检查测试
+ */
+class BackgroundSpellCheckerTest {
+
+    private final SpellChecker mock = new MockSpellCheckerAdapter();
+    private BackgroundSpellChecker background;
+
+    @AfterEach
+    void tearDown() {
+        if (background != null) {
+            background.shutdown();
+        }
+    }
+
+    @Test
+    void testTextCheckedInBackground() throws InterruptedException {
+        TextEditor editor = new TextEditor();
+        editor.setText("first line\nI will recieve it\nthird line\nteh end");
+        background = new BackgroundSpellChecker(mock);
+
+        background.schedule(editor);
+        BackgroundSpellChecker.Status status = await(editor);
+
+        assertEquals(List.of("2:8 recieve", "4:1 teh"), describe(status.getErrors()));
+        // 结果已合并进增量检查的缓存，前台检查无需重新检查
+        editor.getSpellCheck(mock).check();
+        assertEquals(0, editor.getSpellCheck(mock).getLastCheckedLines());
+    }
+
+    @Test
+    void testEditCancelsRunningCheck() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SpellChecker slow = text -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return mock.check(text);
+        };
+        TextEditor editor = new TextEditor();
+        editor.setText("teh first\nsecond");
+        background = new BackgroundSpellChecker(slow);
+        CommandHistory history = new CommandHistory();
+        history.addListener(command -> background.schedule(editor));
+
+        background.schedule(editor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // 检查还在进行时查询不会阻塞
+        BackgroundSpellChecker.Status status = background.query(editor);
+        assertTrue(status.isBusy());
+        assertEquals(2, status.getRemaining());
+        assertTrue(status.getErrors().isEmpty());
+
+        // 编辑后旧的检查被取消，重新检查新的内容
+        history.execute(new InsertCommand(editor, 1, 1, "recieve "));
+        release.countDown();
+        status = await(editor);
+
+        assertEquals(List.of("1:1 recieve", "1:9 teh"), describe(status.getErrors()));
+    }
+
+    @Test
+    void testXmlCheckedInBackground() throws InterruptedException {
+        XmlEditor editor = new XmlEditor();
+        editor.appendChild("title", "title1", "root", "Teh design book");
+        editor.appendChild("note", "note1", "root", "all fine");
+        background = new BackgroundSpellChecker(mock);
+
+        background.schedule(editor);
+        assertEquals(1, await(editor).getErrors().size());
+
+        new CommandHistory().execute(new EditTextCommand(editor, "note1", "wierd"));
+        background.schedule(editor);
+        List<SpellChecker.SpellingError> errors = await(editor).getErrors();
+
+        assertEquals(2, errors.size());
+        assertEquals("note1", errors.get(1).getElementId());
+    }
+
+    @Test
+    void testXmlNodeDeletedDuringCheckIsDropped() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SpellChecker slow = text -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return mock.check(text);
+        };
+        XmlEditor editor = new XmlEditor();
+        editor.appendChild("title", "title1", "root", "Teh design book");
+        editor.appendChild("note", "note1", "root", "wierd");
+        background = new BackgroundSpellChecker(slow);
+
+        background.schedule(editor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // 检查进行中删除节点（不重新安排），完成的结果不能把已删除的节点带回来
+        editor.deleteElement("title1");
+        release.countDown();
+        List<SpellChecker.SpellingError> errors = await(editor).getErrors();
+
+        assertEquals(1, errors.size());
+        assertEquals("note1", errors.get(0).getElementId());
+    }
+
+    // --- 辅助方法 ---
+
+    /**
+     * 反复查询直到后台检查完成
+     */
+    private BackgroundSpellChecker.Status await(Editor editor) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            BackgroundSpellChecker.Status status = background.query(editor);
+            if (status.isComplete()) {
+                return status;
+            }
+            Thread.sleep(5);
+        }
+        fail("后台检查超时");
+        return null;
+    }
+
+    private List<String> describe(List<SpellChecker.SpellingError> errors) {
+        List<String> result = new ArrayList<>();
+        for (SpellChecker.SpellingError error : errors) {
+            result.add(error.getLine() + ":" + error.getColumn() + " " + error.getWord());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,236 @@
+package lab1;
+
+import lab1.command.AppendCommand;
+import lab1.command.Command;
+import lab1.command.CommandHistory;
+import lab1.command.DeleteCommand;
+import lab1.command.InsertCommand;
+import lab1.model.TextEditor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 历史记录容量控制测试
+ */
+class CommandHistoryTest {
+
+    private TextEditor editor;
+
+    @BeforeEach
+    void setUp() {
+        editor = new TextEditor();
+        editor.append("start");
+    }
+
+    @Test
+    void testEntryLimitEvictsOldest() {
+        CommandHistory history = new CommandHistory(3, Long.MAX_VALUE);
+        history.setMergePolicy(0, 0);
+        for (int i = 0; i < 5; i++) {
+            history.execute(new AppendCommand(editor, "line" + i));
+        }
+
+        assertEquals(3, history.getUndoCount());
+        assertEquals(2, history.getEvictedCount());
+
+        // 只能撤销最近的 3 条
+        for (int i = 0; i < 5; i++) {
+            history.undo();
+        }
+        assertEquals(3, editor.getLines().size(), "最旧的两次追加已被淘汰，不能撤销");
+    }
+
+    @Test
+    void testByteLimitEvictsOldest() {
+        CommandHistory history = new CommandHistory(1000, 1000);
+        String big = "x".repeat(200); // 约 464 字节
+        for (int i = 0; i < 4; i++) {
+            history.execute(new InsertCommand(editor, 1, 1, big));
+        }
+
+        assertTrue(history.getRetainedBytes() <= 1000);
+        assertEquals(2, history.getUndoCount());
+    }
+
+    @Test
+    void testKeepsLatestEntryEvenIfOverBudget() {
+        CommandHistory history = new CommandHistory(10, 10);
+        history.execute(new InsertCommand(editor, 1, 1, "hello"));
+
+        assertEquals(1, history.getUndoCount());
+        history.undo();
+        assertEquals("start", editor.getLines().get(0));
+    }
+
+    @Test
+    void testRetainedBytesTracksUndoRedo() {
+        CommandHistory history = new CommandHistory();
+        history.execute(new InsertCommand(editor, 1, 1, "abc"));
+        long bytes = history.getRetainedBytes();
+        assertTrue(bytes > 0);
+
+        history.undo();
+        assertEquals(bytes, history.getRetainedBytes(), "撤销只是在两个栈之间移动");
+        assertEquals(1, history.getRedoCount());
+
+        history.execute(new InsertCommand(editor, 1, 1, "d"));
+        assertEquals(0, history.getRedoCount());
+        assertEquals(new InsertCommand(editor, 1, 1, "d").estimatedSize(), history.getRetainedBytes());
+    }
+
+    @Test
+    void testSetLimitsShrinksExistingHistory() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(0, 0);
+        for (int i = 0; i < 10; i++) {
+            history.execute(new AppendCommand(editor, "line" + i));
+        }
+        history.setLimits(4, CommandHistory.DEFAULT_MAX_BYTES);
+        assertEquals(4, history.getUndoCount());
+
+        assertThrows(IllegalArgumentException.class, () -> history.setLimits(0, 1));
+    }
+
+    // --- 连续编辑合并测试 ---
+
+    @Test
+    void testAdjacentInsertsMerge() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, CommandHistory.DEFAULT_MAX_MERGED_BYTES);
+        String word = "hello";
+        for (int i = 0; i < word.length(); i++) {
+            history.execute(new InsertCommand(editor, 1, 6 + i, word.substring(i, i + 1)));
+        }
+
+        assertEquals("starthello", editor.getLines().get(0));
+        assertEquals(1, history.getUndoCount(), "连续输入应合并为一条记录");
+
+        history.undo();
+        assertEquals("start", editor.getLines().get(0));
+        history.redo();
+        assertEquals("starthello", editor.getLines().get(0));
+    }
+
+    @Test
+    void testNonAdjacentInsertsDoNotMerge() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, CommandHistory.DEFAULT_MAX_MERGED_BYTES);
+        history.execute(new InsertCommand(editor, 1, 1, "a"));
+        history.execute(new InsertCommand(editor, 1, 1, "b"));
+
+        assertEquals(2, history.getUndoCount());
+    }
+
+    @Test
+    void testBackspaceDeletesMerge() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, CommandHistory.DEFAULT_MAX_MERGED_BYTES);
+        // 从行尾连续退格 3 次
+        for (int col = 5; col >= 3; col--) {
+            history.execute(new DeleteCommand(editor, 1, col, 1));
+        }
+
+        assertEquals("st", editor.getLines().get(0));
+        assertEquals(1, history.getUndoCount());
+        history.undo();
+        assertEquals("start", editor.getLines().get(0));
+    }
+
+    @Test
+    void testForwardDeletesMerge() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, CommandHistory.DEFAULT_MAX_MERGED_BYTES);
+        history.execute(new DeleteCommand(editor, 1, 1, 2));
+        history.execute(new DeleteCommand(editor, 1, 1, 1));
+
+        assertEquals("rt", editor.getLines().get(0));
+        assertEquals(1, history.getUndoCount());
+        history.undo();
+        assertEquals("start", editor.getLines().get(0));
+    }
+
+    @Test
+    void testAppendBurstUndoesAsOne() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, CommandHistory.DEFAULT_MAX_MERGED_BYTES);
+        for (int i = 0; i < 1000; i++) {
+            history.execute(new AppendCommand(editor, "line" + i));
+        }
+
+        assertTrue(history.getUndoCount() < 10, "大小上限内的连续追加应合并");
+        while (history.getUndoCount() > 0) {
+            history.undo();
+        }
+        assertEquals(1, editor.getLines().size());
+    }
+
+    @Test
+    void testUndoAppendWithNewlines() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, CommandHistory.DEFAULT_MAX_MERGED_BYTES);
+        history.execute(new AppendCommand(editor, "a\nb"));
+        history.execute(new AppendCommand(editor, "c"));
+        history.execute(new AppendCommand(editor, "d\ne\nf"));
+        assertEquals(7, editor.getLines().size());
+        assertEquals(1, history.getUndoCount());
+
+        history.undo();
+        assertEquals(List.of("start"), editor.getLines());
+        history.redo();
+        assertEquals(List.of("start", "a", "b", "c", "d", "e", "f"), editor.getLines());
+        history.undo();
+        assertEquals(List.of("start"), editor.getLines());
+    }
+
+    @Test
+    void testMergeSizeLimit() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, 100);
+        for (int i = 0; i < 10; i++) {
+            history.execute(new InsertCommand(editor, 1, 6 + i, "x"));
+        }
+
+        assertTrue(history.getUndoCount() > 1, "超过大小上限后应开始新记录");
+    }
+
+    @Test
+    void testNoMergeAfterUndo() {
+        CommandHistory history = new CommandHistory();
+        history.setMergePolicy(60_000, CommandHistory.DEFAULT_MAX_MERGED_BYTES);
+        history.execute(new InsertCommand(editor, 1, 6, "a"));
+        history.execute(new InsertCommand(editor, 1, 7, "b"));
+        history.undo();
+        history.execute(new InsertCommand(editor, 1, 6, "c"));
+
+        assertEquals(1, history.getUndoCount());
+        history.undo();
+        assertEquals("start", editor.getLines().get(0));
+    }
+
+    // --- 监听器 ---
+
+    @Test
+    void testListenerNotifiedOnExecuteUndoRedo() {
+        CommandHistory history = new CommandHistory();
+        List<Command> applied = new ArrayList<>();
+        CommandHistory.Listener listener = applied::add;
+        history.addListener(listener);
+
+        Command append = new AppendCommand(editor, "more");
+        history.execute(append);
+        history.undo();
+        history.redo();
+        history.redo(); // 没有可重做的操作，不通知
+
+        assertEquals(List.of(append, append, append), applied);
+
+        history.removeListener(listener);
+        history.undo();
+        assertEquals(3, applied.size());
+    }
+}
@@ -0,0 +1,116 @@
+package lab1;
+
+import lab1.model.CompactText;
+import lab1.model.PieceTable;
+import lab1.model.TextEditor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 紧凑文本存储测试
+ */
+class CompactTextTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadMatchesReadString() throws IOException {
+        // 跨越多个段，混有中文和代理对
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(7);
+        while (sb.length() < 300_000) {
+            int r = random.nextInt(100);
+            if (r < 2) {
+                sb.append("中文");
+            } else if (r < 3) {
+                sb.append("😀");
+            } else if (r < 10) {
+                sb.append('\n');
+            } else {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        Path file = dir.resolve("mixed.txt");
+        Files.writeString(file, sb, StandardCharsets.UTF_8);
+
+        CompactText text = CompactText.read(file);
+
+        String expected = Files.readString(file, StandardCharsets.UTF_8);
+        assertEquals(expected.length(), text.length());
+        assertEquals(expected, text.toString());
+        for (int i = 0; i < 1000; i++) {
+            int index = random.nextInt(expected.length());
+            assertEquals(expected.charAt(index), text.charAt(index));
+        }
+        assertEquals(expected.substring(65_530, 65_545), text.subSequence(65_530, 65_545));
+    }
+
+    @Test
+    void testMostlyAsciiUsesOneBytePerChar() {
+        // 一个中文字符会让整个 String 变成 UTF-16，这里只影响所在的段
+        String content = "2026-10-18 INFO request handled in 12 ms\n".repeat(30_000) + "完";
+
+        CompactText text = CompactText.of(content);
+
+        assertEquals(content, text.toString());
+        assertTrue(text.memoryBytes() < content.length() * 2L * 7 / 10,
+                "紧凑存储应明显小于 UTF-16 的 String: " + text.memoryBytes());
+    }
+
+    @Test
+    void testEmptyAndMalformed() throws IOException {
+        Path empty = dir.resolve("empty.txt");
+        Files.createFile(empty);
+        assertEquals(0, CompactText.read(empty).length());
+
+        Path bad = dir.resolve("bad.txt");
+        Files.write(bad, new byte[] { 'o', 'k', (byte) 0xC3 });
+        assertThrows(IOException.class, () -> CompactText.read(bad));
+    }
+
+    // --- 作为 PieceTable 的原始缓冲区 ---
+
+    @Test
+    void testPieceTableOverCompactText() {
+        String content = "first\n第二行\n" + "x".repeat(70_000) + "\nlast";
+        PieceTable compact = new PieceTable();
+        compact.setText(CompactText.of(content));
+        PieceTable plain = new PieceTable(content);
+
+        assertEquals(plain.lineCount(), compact.lineCount());
+        for (int i = 0; i < plain.lineCount(); i++) {
+            assertEquals(plain.getLine(i), compact.getLine(i));
+        }
+
+        for (PieceTable table : new PieceTable[] { compact, plain }) {
+            table.insert(1, 2, "插入");
+            table.delete(2, 69_990, 20);
+            table.insertLine(4, "new");
+        }
+        assertEquals(plain.getText(), compact.getText());
+        assertEquals(plain.getLine(2), compact.getLine(2));
+    }
+
+    @Test
+    void testTextEditorLoad() throws IOException {
+        Path file = dir.resolve("load.txt");
+        Files.writeString(file, "#log\nrecieve\n最后", StandardCharsets.UTF_8);
+        TextEditor editor = new TextEditor();
+
+        editor.load(file);
+
+        assertEquals(3, editor.getLines().size());
+        assertEquals("最后", editor.getLines().get(2));
+        editor.insert(2, 1, "X");
+        assertEquals("#log\nXrecieve\n最后", editor.getText());
+    }
+}
@@ -0,0 +1,211 @@
+package lab1;
+
+import lab1.command.CommandHistory;
+import lab1.command.xml.AppendChildCommand;
+import lab1.command.xml.DeleteElementCommand;
+import lab1.command.xml.EditIdCommand;
+import lab1.command.xml.EditTextCommand;
+import lab1.command.xml.InsertBeforeCommand;
+import lab1.model.XmlEditor;
+import lab1.model.XmlNode;
+import lab1.utils.MockSpellCheckerAdapter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 紧凑 DOM（结构数组）测试：与普通对象树的行为保持一致
+ */
+class CompactXmlDocumentTest {
+
+    private static final String BOOKS = "<?xml version=\"1.0\"?>\n"
+            + "<bookstore id=\"root\">\n"
+            + "  <book id=\"b1\">\n"
+            + "    <title id=\"t1\">Teh Design Patterns</title>\n"
+            + "    <author id=\"a1\">Gang of Four</author>\n"
+            + "  </book>\n"
+            + "  <book id=\"b2\">\n"
+            + "    <title id=\"t2\">深入理解 recieve</title>\n"
+            + "  </book>\n"
+            + "</bookstore>\n";
+
+    @TempDir
+    Path dir;
+
+    private XmlEditor load(String xml, boolean compact) throws IOException {
+        Path file = dir.resolve(compact ? "compact.xml" : "plain.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        XmlEditor editor = new XmlEditor();
+        editor.loadFrom(file, compact);
+        return editor;
+    }
+
+    @Test
+    void testLoadMatchesObjectTree() throws IOException {
+        XmlEditor plain = load(BOOKS, false);
+        XmlEditor compact = load(BOOKS, true);
+
+        assertTrue(compact.isCompact());
+        assertFalse(plain.isCompact());
+        assertEquals(plain.getContent(), compact.getContent());
+        assertEquals(plain.getTreeString(), compact.getTreeString());
+        assertEquals(plain.getAllTextContent(), compact.getAllTextContent());
+
+        XmlNode title = compact.findNodeById("t2");
+        assertEquals("深入理解 recieve", title.getTextContent());
+        assertEquals(compact.findNodeById("b2"), title.getParent());
+        assertEquals(2, compact.getRoot().getChildren().size());
+        assertEquals(1, compact.getRoot().getChildIndex(compact.findNodeById("b2")));
+        assertNull(compact.findNodeById("missing"));
+    }
+
+    @Test
+    void testEditsAndUndoMatchObjectTree() throws IOException {
+        XmlEditor plain = load(BOOKS, false);
+        XmlEditor compact = load(BOOKS, true);
+
+        for (XmlEditor editor : new XmlEditor[] { plain, compact }) {
+            CommandHistory history = new CommandHistory();
+            history.execute(new InsertBeforeCommand(editor, "book", "b0", "b1", null));
+            history.execute(new AppendChildCommand(editor, "title", "t0", "b0", "First"));
+            history.execute(new InsertBeforeCommand(editor, "author", "a0", "a1", "Someone"));
+            history.execute(new EditIdCommand(editor, "t1", "t1-renamed"));
+            history.execute(new EditTextCommand(editor, "t2", "Refactoring"));
+            history.execute(new DeleteElementCommand(editor, "b1"));
+            assertNull(editor.findNodeById("a1"));
+            assertFalse(editor.containsId("t1-renamed"));
+
+            history.undo(); // 恢复 b1 子树及其 id
+            assertNotNull(editor.findNodeById("a1"));
+            history.undo(); // 恢复 t2 文本
+            history.execute(new AppendChildCommand(editor, "book", "b3", "root", null));
+            history.execute(new InsertBeforeCommand(editor, "title", "t3", "t2", "Last"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> editor.appendChild("x", "t1-renamed", "root", null));
+        }
+
+        assertEquals(plain.getContent(), compact.getContent());
+        assertEquals("Teh Design Patterns", compact.findNodeById("t1-renamed").getTextContent());
+        assertNull(compact.findNodeById("t1"));
+    }
+
+    @Test
+    void testDuplicateIdAndMixedContentRejected() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> load("<r id=\"r\"><a id=\"x\"/><b id=\"x\"/></r>", true));
+
+        XmlEditor compact = load(BOOKS, true);
+        assertThrows(IllegalStateException.class, () -> compact.appendChild("x", "x1", "t1", null));
+        assertThrows(IllegalArgumentException.class, () -> compact.editText("b1", "text"));
+        assertThrows(IllegalArgumentException.class,
+                () -> compact.getRoot().addChild(new XmlNode("plain", "p1")));
+    }
+
+    @Test
+    void testSpellCheckCachesViews() throws IOException {
+        XmlEditor compact = load(BOOKS, true);
+        var spellCheck = compact.getSpellCheck(new MockSpellCheckerAdapter());
+
+        assertEquals(2, spellCheck.check().size());
+        assertEquals(3, spellCheck.getLastCheckedNodes());
+
+        compact.editText("t1", "The Design Patterns");
+        assertEquals(1, spellCheck.check().size());
+        assertEquals(1, spellCheck.getLastCheckedNodes(), "未修改的节点应复用缓存");
+    }
+
+    @Test
+    void testManyElementsStayCompact() throws IOException {
+        int count = 50_000;
+        StringBuilder xml = new StringBuilder("<root id=\"root\">");
+        for (int i = 0; i < count; i++) {
+            xml.append("<item id=\"i").append(i).append("\">value ").append(i).append("</item>");
+        }
+        xml.append("</root>");
+        XmlEditor compact = load(xml.toString(), true);
+
+        assertEquals("value 49999", compact.findNodeById("i49999").getTextContent());
+        assertEquals(count + 1, compact.getCompactDocument().size());
+        // 每个元素约 7 个 int + 2 个池条目 + 哈希槽 + 字符串字节
+        assertTrue(compact.getCompactDocument().memoryBytes() < 100L * count,
+                "紧凑 DOM 每个元素应不超过 100 字节: " + compact.getCompactDocument().memoryBytes());
+
+        compact.deleteElement("i100");
+        compact.appendChild("item", "i100", "root", "again");
+        assertEquals(count - 1, compact.getRoot().getChildIndex(compact.findNodeById("i100")));
+    }
+
+    @Test
+    void testEditSingleElementDocument() throws IOException {
+        // 加载后字符串池收缩到恰好一个条目，之后的编辑仍需能扩容
+        XmlEditor compact = load("<root id=\"r\"/>", true);
+
+        compact.appendChild("item", "i1", "r", "文本");
+        compact.editId("i1", "i2");
+        compact.editText("i2", "新文本");
+        compact.insertBefore("item", "i0", "i2", null);
+
+        assertEquals("<root id=\"r\">\n  <item id=\"i0\"></item>\n  <item id=\"i2\">新文本</item>\n</root>\n",
+                compact.getContent());
+    }
+
+    @Test
+    void testCompactChildrenList() throws IOException {
+        XmlEditor compact = load(BOOKS, true);
+        List<XmlNode> children = compact.findNodeById("b1").getChildren();
+
+        assertEquals(2, children.size());
+        assertEquals("a1", children.get(1).getId());
+        assertEquals("t1", children.get(0).getId());
+        assertEquals(1, children.lastIndexOf(compact.findNodeById("a1")));
+        ListIterator<XmlNode> it = children.listIterator(children.size());
+        assertEquals("a1", it.previous().getId());
+        assertEquals("t1", it.previous().getId());
+        assertFalse(it.hasPrevious());
+        assertThrows(IndexOutOfBoundsException.class, () -> children.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> children.add(compact.findNodeById("t2")));
+        ListIterator<XmlNode> first = children.listIterator();
+        first.next();
+        assertThrows(UnsupportedOperationException.class, () -> first.set(null));
+
+        // 列表是视图：文档修改后长度和位置随之更新
+        compact.appendChild("year", "y1", "b1", "1994");
+        compact.deleteElement("t1");
+        assertEquals(2, children.size());
+        assertEquals("y1", children.get(1).getId());
+    }
+
+    @Test
+    void testUndoDeleteRestoresPositionBySibling() throws IOException {
+        StringBuilder xml = new StringBuilder("<root id=\"root\">");
+        for (int i = 0; i < 1000; i++) {
+            xml.append("<item id=\"i").append(i).append("\"/>");
+        }
+        xml.append("</root>");
+        for (boolean mode : new boolean[]{false, true}) {
+            XmlEditor editor = load(xml.toString(), mode);
+            String before = editor.getContent();
+            CommandHistory history = new CommandHistory();
+            // 最后一个（没有下一个兄弟）、第一个、中间，以及删除原来的下一个兄弟后再撤销
+            history.execute(new DeleteElementCommand(editor, "i999"));
+            history.execute(new DeleteElementCommand(editor, "i0"));
+            history.execute(new DeleteElementCommand(editor, "i500"));
+            history.execute(new DeleteElementCommand(editor, "i501"));
+            for (int i = 0; i < 4; i++) {
+                history.undo();
+            }
+            assertEquals(before, editor.getContent());
+            assertEquals(500, editor.getRoot().getChildIndex(editor.findNodeById("i500")));
+            assertEquals("i501", editor.findNodeById("i500").getNextSibling().getId());
+            assertNull(editor.findNodeById("i999").getNextSibling());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package lab1;
+
+import lab1.utils.DictionarySpellChecker;
+import lab1.utils.SpellChecker;
+import lab1.utils.SymSpellSuggester;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 词典拼写检查器测试
+ */
+class DictionarySpellCheckerTest {
+
+    @TempDir
+    Path tempDir;
+
+    // --- 加载测试 ---
+
+    @Test
+    void testLoadFromFile() throws IOException {
+        Path file = tempDir.resolve("words.txt");
+        Files.write(file, "apple\r\nBanana 120\n\n  cherry\nnaïve\napple\n".getBytes(StandardCharsets.UTF_8));
+
+        DictionarySpellChecker checker = DictionarySpellChecker.load(file);
+
+        assertEquals(3, checker.size()); // 空行、非 ASCII 单词与重复项被跳过
+        assertTrue(checker.contains("apple"));
+        assertTrue(checker.contains("banana"));
+        assertTrue(checker.contains("cherry"));
+        assertFalse(checker.contains("120"));
+        assertEquals(120, checker.frequency(1));
+        assertEquals(1, checker.frequency(0));
+    }
+
+    @Test
+    void testUnsortedInputIsSorted() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(Arrays.asList("pear", "apple", "fig", "apple", "Fig"));
+
+        assertEquals(3, checker.size());
+        assertEquals("apple", checker.wordAt(0));
+        assertEquals("fig", checker.wordAt(1));
+        assertEquals("pear", checker.wordAt(2));
+    }
+
+    @Test
+    void testEmptyDictionary() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(new ArrayList<>());
+        assertEquals(0, checker.size());
+        assertFalse(checker.contains("word"));
+        assertEquals(1, checker.check("word").size());
+    }
+
+    // --- 查询测试 ---
+
+    @Test
+    void testLookupIsCaseInsensitive() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(Arrays.asList("hello", "World"));
+        assertTrue(checker.contains("HELLO"));
+        assertTrue(checker.contains("world"));
+        assertTrue(checker.contains("say hello!", 4, 9));
+        assertFalse(checker.contains("hell"));
+        assertFalse(checker.contains("helloo"));
+    }
+
+    @Test
+    void testCheckReportsUnknownWords() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(Arrays.asList("the", "cat", "sat"));
+
+        List<SpellChecker.SpellingError> errors = checker.check("The cat sta on teh mat.");
+
+        assertEquals(4, errors.size());
+        assertEquals("sta", errors.get(0).getWord());
+        assertEquals(8, errors.get(0).getPosition());
+        assertEquals("teh", errors.get(2).getWord());
+    }
+
+    @Test
+    void testCompactMemory() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            words.add("word" + Integer.toString(i, 26).replace('0', 'z'));
+        }
+        DictionarySpellChecker checker = DictionarySpellChecker.of(words);
+
+        // 每个单词只占字节池中的字符 + 一个 int 偏移 + 一个 int 词频
+        long chars = 0;
+        for (String word : words) {
+            chars += word.length();
+        }
+        assertTrue(checker.memoryBytes() <= chars + 8L * (words.size() + 1));
+    }
+
+    @Test
+    void testConcurrentLookups() throws Exception {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            words.add("w" + Integer.toString(i, 36));
+        }
+        DictionarySpellChecker checker = DictionarySpellChecker.of(words);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    int found = 0;
+                    for (String word : words) {
+                        if (checker.contains(word)) {
+                            found++;
+                        }
+                    }
+                    return found;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(words.size(), result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // --- 拼写建议测试 ---
+
+    @Test
+    void testSuggestionsWithinMaxDistance() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(Arrays.asList("the", "then", "they", "tea", "cat"));
+        SymSpellSuggester suggester = new SymSpellSuggester(checker, 1, 16);
+
+        List<String> suggestions = suggester.suggest("teh");
+
+        // 相邻换位与替换都算距离 1；同距离同词频时按字典序
+        assertEquals(Arrays.asList("tea", "the"), suggestions);
+        assertFalse(suggestions.contains("then")); // 距离 2
+    }
+
+    @Test
+    void testFrequencyBreaksTies() throws IOException {
+        Path file = tempDir.resolve("freq.txt");
+        Files.write(file, "bat 5\ncat 900\nhat 40\n".getBytes(StandardCharsets.UTF_8));
+        DictionarySpellChecker checker = DictionarySpellChecker.load(file);
+
+        assertEquals(Arrays.asList("cat", "hat", "bat"), checker.suggester().suggest("zat"));
+    }
+
+    @Test
+    void testLongWordsAndMaxDistance() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(
+                Arrays.asList("receive", "government", "environment", "necessary"));
+
+        assertEquals(Arrays.asList("receive"), checker.suggester().suggest("recieve"));
+        assertEquals(Arrays.asList("government"), checker.suggester().suggest("Goverment"));
+        assertEquals(Arrays.asList("necessary"), checker.suggester().suggest("neccesary"));
+        assertTrue(checker.suggester().suggest("xyzzy").isEmpty());
+
+        checker.setMaxEditDistance(0);
+        assertTrue(checker.suggester().suggest("recieve").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> checker.setMaxEditDistance(4));
+    }
+
+    @Test
+    void testCheckFillsSuggestions() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(Arrays.asList("i", "will", "receive", "it"));
+
+        List<SpellChecker.SpellingError> errors = checker.check("I will recieve it");
+
+        assertEquals(1, errors.size());
+        assertEquals(Arrays.asList("receive"), errors.get(0).getSuggestions());
+    }
+
+    @Test
+    void testSuggestionCacheReturnsSameResult() {
+        DictionarySpellChecker checker = DictionarySpellChecker.of(Arrays.asList("weird", "word"));
+        SymSpellSuggester suggester = checker.suggester();
+
+        List<String> first = suggester.suggest("wierd");
+        assertSame(first, suggester.suggest("WIERD"));
+        assertThrows(UnsupportedOperationException.class, () -> first.add("x"));
+    }
+}
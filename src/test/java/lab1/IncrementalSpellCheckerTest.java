@@ -0,0 +1,137 @@
+package lab1;
+
+import lab1.command.CommandHistory;
+import lab1.command.DeleteCommand;
+import lab1.command.InsertCommand;
+import lab1.model.IncrementalSpellChecker;
+import lab1.model.TextEditor;
+import lab1.utils.MockSpellCheckerAdapter;
+import lab1.utils.SpellChecker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量拼写检查测试
+ */
+class IncrementalSpellCheckerTest {
+
+    private TextEditor editor;
+    private IncrementalSpellChecker spellCheck;
+
+    @BeforeEach
+    void setUp() {
+        editor = new TextEditor();
+        editor.setText("first line\nI will recieve it\nthird line\nteh end");
+        spellCheck = editor.getSpellCheck(new MockSpellCheckerAdapter());
+    }
+
+    // --- 行列位置 ---
+
+    @Test
+    void testReportsLineAndColumn() {
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+
+        assertEquals(2, errors.size());
+        assertEquals(2, errors.get(0).getLine());
+        assertEquals(8, errors.get(0).getColumn());
+        assertEquals(4, errors.get(1).getLine());
+        assertEquals(1, errors.get(1).getColumn());
+        assertTrue(errors.get(0).toString().contains("2:8"));
+    }
+
+    // --- 只检查脏行 ---
+
+    @Test
+    void testOnlyDirtyLinesRechecked() {
+        spellCheck.check();
+        assertEquals(4, spellCheck.getLastCheckedLines());
+
+        spellCheck.check();
+        assertEquals(0, spellCheck.getLastCheckedLines());
+
+        editor.insert(3, 1, "goverment ");
+        assertEquals(1, spellCheck.getDirtyLines());
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+        assertEquals(1, spellCheck.getLastCheckedLines());
+        assertEquals(3, errors.size());
+        assertEquals(3, errors.get(1).getLine());
+    }
+
+    @Test
+    void testLineShiftKeepsCachedResults() {
+        spellCheck.check();
+
+        // 在第 1 行插入换行：第 1 行变成两行，后面的行号整体后移
+        editor.insert(1, 6, "\n");
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+
+        assertEquals(2, spellCheck.getLastCheckedLines());
+        assertEquals(3, errors.get(0).getLine());
+        assertEquals(5, errors.get(1).getLine());
+
+        editor.getLines().remove(0);
+        editor.getLines().remove(0);
+        errors = spellCheck.check();
+        assertEquals(0, spellCheck.getLastCheckedLines());
+        assertEquals(1, errors.get(0).getLine());
+    }
+
+    @Test
+    void testLineCountChangesMarkOnlyChangedLines() {
+        spellCheck.check();
+
+        // 第 2 行拆成三行：只有这三行是脏行，第 3、4 行的结果随行号后移
+        editor.insert(2, 8, "\nteh\n");
+        assertEquals(3, spellCheck.getDirtyLines());
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+        assertEquals(3, spellCheck.getLastCheckedLines());
+        assertEquals(3, errors.size());
+        assertEquals(3, errors.get(0).getLine());
+        assertEquals(4, errors.get(1).getLine());
+        assertEquals(6, errors.get(2).getLine());
+
+        // 六行换成两行
+        editor.setText("teh\nok");
+        assertEquals(2, spellCheck.getDirtyLines());
+        assertEquals(1, spellCheck.check().size());
+    }
+
+    @Test
+    void testUndoMarksLineDirty() {
+        spellCheck.check();
+        CommandHistory history = new CommandHistory();
+
+        history.execute(new DeleteCommand(editor, 2, 8, 7));
+        assertEquals(1, spellCheck.check().size());
+
+        history.undo();
+        assertEquals(2, spellCheck.check().size());
+        assertEquals(1, spellCheck.getLastCheckedLines());
+
+        history.execute(new InsertCommand(editor, 4, 8, " recieve"));
+        assertEquals(3, spellCheck.check().size());
+    }
+
+    @Test
+    void testAppendAndSetText() {
+        spellCheck.check();
+        editor.append("wierd");
+        assertEquals(3, spellCheck.check().size());
+        assertEquals(1, spellCheck.getLastCheckedLines());
+
+        editor.setText("all good");
+        assertTrue(spellCheck.check().isEmpty());
+        assertEquals(1, spellCheck.getLastCheckedLines());
+    }
+
+    @Test
+    void testSameCheckerReusesSession() {
+        SpellChecker checker = spellCheck.getChecker();
+        assertSame(spellCheck, editor.getSpellCheck(checker));
+        assertNotSame(spellCheck, editor.getSpellCheck(new MockSpellCheckerAdapter()));
+    }
+}
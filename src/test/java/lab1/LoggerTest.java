@@ -0,0 +1,86 @@
+package lab1;
+
+import lab1.utils.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步日志测试
+ */
+class LoggerTest {
+
+    private String filename;
+    private Path logFile;
+
+    @BeforeEach
+    void setUp() {
+        filename = "logger-test-" + System.nanoTime() + ".txt";
+        logFile = Paths.get("." + filename + ".log");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Logger.shutdown();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Test
+    void testFlushWritesAllEntriesInOrder() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            Logger.log(filename, "append \"line" + i + "\"");
+        }
+        Logger.flush();
+
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        List<String> commands = lines.stream().filter(l -> l.contains("append")).toList();
+        assertEquals(1000, commands.size());
+        assertTrue(commands.get(0).endsWith("append \"line0\""));
+        assertTrue(commands.get(999).endsWith("append \"line999\""));
+    }
+
+    @Test
+    void testShutdownFlushesPendingEntries() throws IOException {
+        Logger.log(filename, "insert 1:1 \"x\"");
+        Logger.shutdown();
+
+        assertTrue(Files.readString(logFile, StandardCharsets.UTF_8).contains("insert 1:1 \"x\""));
+
+        // 关闭后再次记录会重新启动后台线程
+        Logger.log(filename, "delete 1:1 1");
+        Logger.flush();
+        assertTrue(Files.readString(logFile, StandardCharsets.UTF_8).contains("delete 1:1 1"));
+    }
+
+    @Test
+    void testConcurrentProducers() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int id = t;
+            pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    Logger.log(filename, "t" + id + " cmd" + i);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        Logger.flush();
+
+        long count = Files.readAllLines(logFile, StandardCharsets.UTF_8).stream()
+                .filter(l -> l.contains(" cmd")).count();
+        assertEquals(2000, count);
+    }
+}
@@ -0,0 +1,225 @@
+package lab1;
+
+import lab1.model.FileFollower;
+import lab1.model.MappedFileViewer;
+import lab1.model.Workspace;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 只读内存映射查看器测试
+ */
+class MappedFileViewerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadsRangesAcrossCheckpointsAndChunks() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            expected.add(i % 7 == 0 ? "" : "line " + i + " 日志");
+        }
+        Path file = dir.resolve("big.log");
+        Files.write(file, expected, StandardCharsets.UTF_8);
+
+        // 小的映射段大小，让行跨越映射段边界
+        MappedFileViewer viewer = new MappedFileViewer(file, 4096);
+        // 索引未完成时也能读取
+        assertEquals(expected.subList(4990, 5000), viewer.readLines(4991, 100));
+
+        assertTrue(viewer.awaitIndex(5000));
+        assertEquals(5000, viewer.getLineCount());
+        assertEquals(expected.subList(0, 3), viewer.readLines(1, 3));
+        assertEquals(expected.subList(1020, 1030), viewer.readLines(1021, 10));
+        assertEquals(expected.subList(2047, 2049), viewer.readLines(2048, 2));
+        assertTrue(viewer.readLines(5001, 10).isEmpty());
+        assertTrue(viewer.indexMemoryBytes() < 1024);
+    }
+
+    @Test
+    void testLastLineWithoutNewlineAndCrlf() throws Exception {
+        Path file = dir.resolve("crlf.log");
+        Files.writeString(file, "first\r\nsecond\r\nlast", StandardCharsets.UTF_8);
+
+        MappedFileViewer viewer = new MappedFileViewer(file);
+        assertTrue(viewer.awaitIndex(5000));
+
+        assertEquals(3, viewer.getLineCount());
+        assertEquals(List.of("first", "second", "last"), viewer.readLines(1, 10));
+    }
+
+    @Test
+    void testEmptyFile() throws Exception {
+        Path file = dir.resolve("empty.log");
+        Files.createFile(file);
+
+        MappedFileViewer viewer = new MappedFileViewer(file);
+        assertTrue(viewer.awaitIndex(5000));
+
+        assertEquals(0, viewer.getLineCount());
+        assertTrue(viewer.readLines(1, 10).isEmpty());
+    }
+
+    @Test
+    void testReadOnly() throws Exception {
+        Path file = dir.resolve("ro.log");
+        Files.writeString(file, "keep me\n", StandardCharsets.UTF_8);
+        MappedFileViewer viewer = new MappedFileViewer(file);
+
+        assertTrue(viewer.isReadOnly());
+        assertThrows(IllegalStateException.class, () -> viewer.setContent("x"));
+        assertThrows(IllegalArgumentException.class, () -> viewer.readLines(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileViewer(file, 1000));
+    }
+
+    @Test
+    void testWorkspaceViewSkipsSave() throws IOException {
+        Path file = dir.resolve("ws.log");
+        Files.writeString(file, "a\nb\n", StandardCharsets.UTF_8);
+        Workspace workspace = new Workspace();
+
+        workspace.view(file.toString());
+        assertNotNull(workspace.getActiveViewer());
+        assertNull(workspace.getActiveTextEditor());
+
+        workspace.save(null);
+        assertEquals("a\nb\n", Files.readString(file, StandardCharsets.UTF_8));
+        workspace.close(null);
+        assertNull(workspace.getActiveEditor());
+
+        assertThrows(IOException.class, () -> workspace.view(dir.resolve("missing.log").toString()));
+    }
+
+    // --- 跟随模式 ---
+
+    @Test
+    void testRefreshExtendsIndexFromLastOffset() throws Exception {
+        Path file = dir.resolve("grow.log");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            expected.add("old " + i);
+        }
+        Files.write(file, expected, StandardCharsets.UTF_8);
+        MappedFileViewer viewer = new MappedFileViewer(file, 4096);
+        assertTrue(viewer.awaitIndex(5000));
+        assertEquals(0, viewer.refresh());
+
+        List<String> appended = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            appended.add("new " + i);
+        }
+        Files.write(file, appended, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        expected.addAll(appended);
+
+        assertTrue(viewer.refresh() > 0);
+        assertEquals(2500, viewer.getLineCount());
+        assertEquals(expected.subList(2040, 2060), viewer.readLines(2041, 20));
+        assertEquals(expected.subList(2490, 2500), viewer.readLines(2491, 100));
+    }
+
+    @Test
+    void testInterruptedRefreshResumesFromIndexedOffset() throws Exception {
+        Path file = dir.resolve("interrupted.log");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add("old " + i);
+        }
+        Files.write(file, expected, StandardCharsets.UTF_8);
+        MappedFileViewer viewer = new MappedFileViewer(file, 1 << 20);
+        assertTrue(viewer.awaitIndex(5000));
+
+        // 每次追加远超一个扫描块（64KB）的内容，在刷新线程扫描途中中断它（follow stop），直到留下未扫描的尾部
+        boolean interrupted = false;
+        for (int attempt = 0; attempt < 10 && !interrupted; attempt++) {
+            List<String> appended = new ArrayList<>();
+            for (int i = 0; i < 200_000; i++) {
+                appended.add("attempt " + attempt + " line " + i);
+            }
+            Files.write(file, appended, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            expected.addAll(appended);
+            long before = viewer.getIndexedBytes();
+            Thread refresher = new Thread(() -> {
+                try {
+                    viewer.refresh();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            refresher.start();
+            while (viewer.getIndexedBytes() == before && refresher.isAlive()) {
+                Thread.onSpinWait();
+            }
+            refresher.interrupt();
+            refresher.join();
+            interrupted = viewer.getIndexedBytes() < viewer.getSize();
+        }
+        assertTrue(interrupted, "刷新应在扫描途中被中断");
+
+        // 文件没有再增长，下次刷新仍要补扫剩下的部分
+        assertEquals(0, viewer.refresh());
+        assertEquals(viewer.getSize(), viewer.getIndexedBytes());
+        assertEquals(expected.size(), viewer.getLineCount());
+        int last = expected.size();
+        assertEquals(expected.subList(last - 150_000, last - 149_990), viewer.readLines(last - 149_999, 10));
+        assertEquals(expected.subList(last - 10, last), viewer.readLines(last - 9, 100));
+    }
+
+    @Test
+    void testFollowerReturnsOnlyNewCompleteLines() throws Exception {
+        Path file = dir.resolve("tail.log");
+        Files.writeString(file, "one\ntwo\npart", StandardCharsets.UTF_8);
+        MappedFileViewer viewer = new MappedFileViewer(file);
+        FileFollower follower = new FileFollower(viewer);
+        assertTrue(viewer.awaitIndex(5000));
+
+        assertTrue(follower.poll().isEmpty());
+
+        append(file, "ial\nthree\nfo");
+        assertEquals(List.of("partial", "three"), follower.poll());
+        assertTrue(follower.poll().isEmpty());
+
+        append(file, "ur\r\n");
+        assertEquals(List.of("four"), follower.poll());
+        assertEquals(5, viewer.getLineCount());
+
+        Files.writeString(file, "x\n", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, follower::poll);
+    }
+
+    @Test
+    void testFollowerThread() throws Exception {
+        Path file = dir.resolve("bg.log");
+        Files.writeString(file, "start\n", StandardCharsets.UTF_8);
+        MappedFileViewer viewer = new MappedFileViewer(file);
+        FileFollower follower = new FileFollower(viewer);
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+
+        follower.start(output::add, 10);
+        assertThrows(IllegalStateException.class, () -> follower.start(output::add, 10));
+        append(file, "hello\n");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (output.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        follower.stop();
+
+        assertEquals(List.of("hello"), output);
+    }
+
+    private void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,149 @@
+package lab1;
+
+import lab1.model.Editor;
+import lab1.model.ParallelSpellChecker;
+import lab1.model.TextEditor;
+import lab1.model.XmlEditor;
+import lab1.utils.MockSpellCheckerAdapter;
+import lab1.utils.SpellChecker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行拼写检查测试：结果必须与串行检查完全一致
+ */
+class ParallelSpellCheckerTest {
+
+    private static final String[] SAMPLES = {
+            "the quick brown fox", "I will recieve it", "", "teh goverment said",
+            "nothing wrong here", "definately wierd" };
+
+    private final SpellChecker checker = new MockSpellCheckerAdapter();
+    private ForkJoinPool pool;
+    private ParallelSpellChecker parallel;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        parallel = new ParallelSpellChecker(checker, pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    // --- 文本文件 ---
+
+    @Test
+    void testTextMatchesSequential() {
+        TextEditor editor = largeTextEditor(5000);
+
+        List<SpellChecker.SpellingError> errors = parallel.checkText(editor);
+
+        assertEquals(describe(sequential(editor)), describe(errors));
+    }
+
+    @Test
+    void testIncrementalFirstCheckRunsInParallel() {
+        TextEditor editor = largeTextEditor(3000);
+
+        List<SpellChecker.SpellingError> errors = editor.getSpellCheck(checker).check();
+
+        assertEquals(3000, editor.getSpellCheck(checker).getLastCheckedLines());
+        assertEquals(describe(sequential(editor)), describe(errors));
+    }
+
+    // --- XML 文件 ---
+
+    @Test
+    void testXmlMatchesSequential() {
+        XmlEditor editor = new XmlEditor();
+        editor.appendChild("p", "lead", "root", "   ");
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 == 0) {
+                editor.appendChild("section", "s" + i / 10, "root", null);
+            }
+            editor.appendChild("p", "p" + i, "s" + i / 10, SAMPLES[i % SAMPLES.length]);
+        }
+
+        List<SpellChecker.SpellingError> errors = parallel.checkXml(editor);
+
+        // 串行逐个检查文本节点的结果
+        List<String> expected = new ArrayList<>();
+        editor.forEachText(node -> {
+            for (SpellChecker.SpellingError error : checker.check(node.getTextContent())) {
+                expected.add(node.getId() + "@" + error.getPosition() + " " + error.getWord());
+            }
+        });
+        List<String> actual = new ArrayList<>();
+        for (SpellChecker.SpellingError error : errors) {
+            actual.add(error.getElementId() + "@" + error.getPosition() + " " + error.getWord());
+        }
+        assertEquals(expected, actual);
+    }
+
+    // --- 多文件 ---
+
+    @Test
+    void testCheckAllKeepsFileOrder() {
+        Map<String, Editor> editors = new LinkedHashMap<>();
+        editors.put("b.txt", largeTextEditor(2000));
+        XmlEditor xml = new XmlEditor();
+        xml.appendChild("title", "t", "root", "teh book");
+        editors.put("a.xml", xml);
+        TextEditor small = new TextEditor();
+        small.append("all fine");
+        editors.put("c.txt", small);
+
+        Map<String, List<SpellChecker.SpellingError>> results = parallel.checkAll(editors);
+
+        assertEquals(new ArrayList<>(editors.keySet()), new ArrayList<>(results.keySet()));
+        assertEquals(describe(sequential((TextEditor) editors.get("b.txt"))), describe(results.get("b.txt")));
+        assertEquals(1, results.get("a.xml").size());
+        assertTrue(results.get("c.txt").isEmpty());
+    }
+
+    // --- 辅助方法 ---
+
+    private TextEditor largeTextEditor(int lines) {
+        TextEditor editor = new TextEditor();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append(SAMPLES[i % SAMPLES.length]);
+        }
+        editor.setText(sb.toString());
+        return editor;
+    }
+
+    private List<SpellChecker.SpellingError> sequential(TextEditor editor) {
+        List<SpellChecker.SpellingError> errors = new ArrayList<>();
+        List<String> lines = editor.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            for (SpellChecker.SpellingError error : checker.check(lines.get(i))) {
+                errors.add(error.atLine(i + 1));
+            }
+        }
+        return errors;
+    }
+
+    private List<String> describe(List<SpellChecker.SpellingError> errors) {
+        List<String> result = new ArrayList<>();
+        for (SpellChecker.SpellingError error : errors) {
+            result.add(error.getLine() + ":" + error.getColumn() + " " + error.getWord());
+        }
+        return result;
+    }
+}
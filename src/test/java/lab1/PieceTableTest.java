@@ -0,0 +1,187 @@
+package lab1;
+
+import lab1.model.PieceTable;
+import lab1.model.TextEditor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Piece Table 存储引擎测试
+ */
+class PieceTableTest {
+
+    // --- 基础功能测试 ---
+
+    @Test
+    void testEmptyTable() {
+        PieceTable table = new PieceTable();
+        assertEquals(0, table.lineCount());
+        assertEquals("", table.getText());
+    }
+
+    @Test
+    void testLoadKeepsLines() {
+        PieceTable table = new PieceTable("a\nbc\n");
+        assertEquals(3, table.lineCount());
+        assertEquals("bc", table.getLine(1));
+        assertEquals("", table.getLine(2));
+        assertEquals("a\nbc\n", table.getText());
+    }
+
+    @Test
+    void testInsertAndDelete() {
+        PieceTable table = new PieceTable("Hello World");
+        table.insert(0, 5, ",");
+        assertEquals("Hello, World", table.getLine(0));
+
+        String deleted = table.delete(0, 0, 7);
+        assertEquals("Hello, ", deleted);
+        assertEquals("World", table.getText());
+    }
+
+    @Test
+    void testInsertNewlineSplitsLine() {
+        PieceTable table = new PieceTable("ab");
+        table.insert(0, 1, "\n");
+        assertEquals(2, table.lineCount());
+        assertEquals("a", table.getLine(0));
+        assertEquals("b", table.getLine(1));
+    }
+
+    @Test
+    void testInsertAndRemoveLines() {
+        PieceTable table = new PieceTable();
+        table.insertLine(0, "first");
+        table.insertLine(1, "third");
+        table.insertLine(1, "second");
+        assertEquals("first\nsecond\nthird", table.getText());
+
+        assertEquals("third", table.removeLine(2));
+        assertEquals("first", table.removeLine(0));
+        assertEquals("second", table.removeLine(0));
+        assertEquals(0, table.lineCount());
+    }
+
+    @Test
+    void testEmptyLineIsDistinctFromNoLines() {
+        PieceTable table = new PieceTable();
+        table.insertLine(0, "");
+        assertEquals(1, table.lineCount());
+        assertEquals("", table.getLine(0));
+    }
+
+    @Test
+    void testTypingExtendsPieceInPlace() {
+        PieceTable table = new PieceTable("Hello World");
+        String typed = "brave\nnew ";
+        for (int i = 0; i < typed.length(); i++) {
+            table.insert(i < 6 ? 0 : 1, i < 6 ? 6 + i : i - 6, typed.substring(i, i + 1));
+        }
+        assertEquals("Hello brave\nnew World", table.getText());
+        assertEquals(2, table.lineCount());
+        assertEquals("new World", table.getLine(1));
+        // 原始内容被切成两段，中间连续输入的字符只占一个片段
+        assertEquals(3, table.pieceCount());
+
+        // 删掉末尾的空格后再输入，不能延长（片段已不在追加缓冲区末尾），新增一个片段
+        table.delete(1, 3, 1);
+        table.insert(1, 3, "!");
+        assertEquals("new!World", table.getLine(1));
+        assertEquals(4, table.pieceCount());
+    }
+
+    // --- 与 ArrayList 参照实现对比的随机测试 ---
+
+    @Test
+    void testRandomEditsMatchReference() {
+        Random random = new Random(42);
+        PieceTable table = new PieceTable("alpha\nbeta\ngamma");
+        List<String> expected = new ArrayList<>(Arrays.asList("alpha", "beta", "gamma"));
+
+        for (int step = 0; step < 5000; step++) {
+            int op = random.nextInt(5);
+            if (expected.isEmpty() || op == 0) {
+                int line = random.nextInt(expected.size() + 1);
+                String text = "L" + step;
+                table.insertLine(line, text);
+                expected.add(line, text);
+            } else if (op == 1 && expected.size() > 1) {
+                int line = random.nextInt(expected.size());
+                assertEquals(expected.remove(line), table.removeLine(line));
+            } else if (op == 2) {
+                int line = random.nextInt(expected.size());
+                String current = expected.get(line);
+                int col = random.nextInt(current.length() + 1);
+                String text = Integer.toString(step);
+                table.insert(line, col, text);
+                expected.set(line, current.substring(0, col) + text + current.substring(col));
+            } else {
+                int line = random.nextInt(expected.size());
+                String current = expected.get(line);
+                int col = random.nextInt(current.length() + 1);
+                int len = random.nextInt(current.length() - col + 1);
+                assertEquals(current.substring(col, col + len), table.delete(line, col, len));
+                expected.set(line, current.substring(0, col) + current.substring(col + len));
+            }
+
+            assertEquals(expected.size(), table.lineCount());
+        }
+        assertEquals(String.join("\n", expected), table.getText());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), table.getLine(i));
+            assertEquals(expected.get(i).length(), table.lineLength(i));
+        }
+    }
+
+    // --- TextEditor 集成测试 ---
+
+    @Test
+    void testTextEditorLineView() {
+        TextEditor editor = new TextEditor(new PieceTable("x\ny"));
+        editor.getLines().remove(editor.getLines().size() - 1);
+        editor.getLines().add("z");
+        editor.getLines().set(0, "w");
+        assertEquals("w\nz", editor.getText());
+    }
+
+    @Test
+    void testStreamingSaveMatchesText() throws IOException {
+        TextEditor editor = new TextEditor();
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            line.append("汉字 text ");
+        }
+        for (int i = 0; i < 500; i++) {
+            editor.append(line.toString() + i);
+        }
+        editor.insert(3, 5, "inserted");
+
+        assertArrayEquals(editor.getText().getBytes(StandardCharsets.UTF_8), save(editor));
+    }
+
+    @Test
+    void testStreamingSaveSurrogatePairAcrossPieces() throws IOException {
+        TextEditor editor = new TextEditor(new PieceTable("a\uD83D\uDE00b"));
+        // 在代理对中间插入后再删除，使高、低代理落在不同片段
+        editor.insert(1, 3, "x");
+        editor.delete(1, 3, 1);
+
+        assertEquals("a\uD83D\uDE00b", new String(save(editor), StandardCharsets.UTF_8));
+    }
+
+    private byte[] save(TextEditor editor) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        editor.writeTo(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+}
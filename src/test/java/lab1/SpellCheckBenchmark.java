@@ -0,0 +1,87 @@
+package lab1;
+
+import lab1.utils.MockSpellCheckerAdapter;
+import lab1.utils.SpellChecker;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 拼写检查分词吞吐量对比：原正则实现 vs WordScanner
+ * 不是单元测试，需手动运行：
+ * mvn test-compile && java -cp target/classes:target/test-classes lab1.SpellCheckBenchmark [MB]
+ */
+public class SpellCheckBenchmark {
+    private static final String[] WORDS = {
+            "the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "editor", "command",
+            "history", "design", "pattern", "observer", "adapter", "workspace", "Element", "Text",
+            "recieve", "goverment" };
+    private static final Set<String> ERRORS = new HashSet<>(List.of("recieve", "goverment"));
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        String text = generate(megabytes * 1024 * 1024);
+        SpellChecker scanner = new MockSpellCheckerAdapter();
+
+        // 预热
+        for (int i = 0; i < 3; i++) {
+            regexCheck(text);
+            scanner.check(text);
+        }
+
+        double regex = measure("regex (每次编译 + group + toLowerCase)", text, () -> regexCheck(text));
+        double scan = measure("WordScanner (小写哈希探测)", text, () -> scanner.check(text).size());
+        System.out.printf("提升: %.1fx%n", scan / regex);
+    }
+
+    /**
+     * 原 MockSpellCheckerAdapter.check 的做法
+     */
+    private static int regexCheck(String text) {
+        List<String> errors = new ArrayList<>();
+        Pattern wordPattern = Pattern.compile("\\b[a-zA-Z]+\\b");
+        Matcher matcher = wordPattern.matcher(text);
+        while (matcher.find()) {
+            String word = matcher.group();
+            if (ERRORS.contains(word.toLowerCase())) {
+                errors.add(word);
+            }
+        }
+        return errors.size();
+    }
+
+    private static double measure(String name, String text, Run run) {
+        int rounds = 5;
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            found = run.run();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double mbPerSecond = (double) text.length() * rounds / (1024 * 1024) / seconds;
+        System.out.printf("%-40s %8.1f MB/s (%d 个错误)%n", name, mbPerSecond, found);
+        return mbPerSecond;
+    }
+
+    private static String generate(int chars) {
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder(chars + 16);
+        while (sb.length() < chars) {
+            sb.append(WORDS[random.nextInt(WORDS.length - 2)]);
+            if (random.nextInt(500) == 0) {
+                sb.append(' ').append(WORDS[WORDS.length - 1 - random.nextInt(2)]);
+            }
+            sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return sb.toString();
+    }
+
+    private interface Run {
+        int run();
+    }
+}
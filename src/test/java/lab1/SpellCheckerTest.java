@@ -2,10 +2,15 @@ package lab1;
 
 import lab1.utils.MockSpellCheckerAdapter;
 import lab1.utils.SpellChecker;
+import lab1.utils.WordScanner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -177,6 +182,48 @@ class SpellCheckerTest {
         assertEquals("recieve", errors.get(0).getWord());
     }
 
+    @Test
+    void testWordsGluedToDigitsIgnored() {
+        // 与 \b[a-zA-Z]+\b 一致：紧贴数字、下划线或非 ASCII 字母的单词不算
+        List<SpellChecker.SpellingError> errors = checker.check("recieve1 _teh tehé recieve,teh");
+        assertEquals(2, errors.size());
+        assertEquals(19, errors.get(0).getPosition());
+        assertEquals("teh", errors.get(1).getWord());
+    }
+
+    // --- 分词器测试 ---
+
+    @Test
+    void testScannerMatchesRegex() {
+        Random random = new Random(7);
+        String alphabet = "abcXYZ 09_,.'-\té漢\u0301";
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = sb.toString();
+            assertEquals(regexWords(text), scannerWords(text), "文本: " + text);
+        }
+        // 增补平面字母（代理对）同样是单词字符
+        String supplementary = "\uD835\uDC00abc abc\uD835\uDC00 ok";
+        assertEquals(regexWords(supplementary), scannerWords(supplementary));
+    }
+
+    @Test
+    void testScannerRegion() {
+        WordScanner scanner = new WordScanner().reset("xx hello yy", 2, 8);
+        assertTrue(scanner.next());
+        assertEquals("hello", scanner.word());
+        assertFalse(scanner.next());
+
+        // 区间边界视为单词边界，可复用同一实例
+        scanner.reset("abcdef", 1, 4);
+        assertTrue(scanner.next());
+        assertEquals("bcd", scanner.word());
+    }
+
     // --- XML 场景测试 ---
 
     @Test
@@ -208,6 +255,24 @@ class SpellCheckerTest {
 
     // --- 辅助方法 ---
 
+    private List<String> regexWords(String text) {
+        List<String> words = new ArrayList<>();
+        Matcher matcher = Pattern.compile("\\b[a-zA-Z]+\\b").matcher(text);
+        while (matcher.find()) {
+            words.add(matcher.start() + ":" + matcher.group());
+        }
+        return words;
+    }
+
+    private List<String> scannerWords(String text) {
+        List<String> words = new ArrayList<>();
+        WordScanner scanner = new WordScanner().reset(text);
+        while (scanner.next()) {
+            words.add(scanner.start() + ":" + scanner.word());
+        }
+        return words;
+    }
+
     private void assertHasError(String wrongWord, String correctWord) {
         List<SpellChecker.SpellingError> errors = checker.check(wrongWord);
         assertEquals(1, errors.size());
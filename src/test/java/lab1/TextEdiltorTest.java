@@ -1,10 +1,13 @@
 package lab1;
 
 import lab1.command.*;
+import lab1.model.TextEdit;
 import lab1.model.TextEditor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TextEditorTest {
@@ -69,4 +72,53 @@ class TextEditorTest {
         history.undo();
         assertEquals(2, editor.getLines().size(), "撤销追加应移除最后一行");
     }
-}
\ No newline at end of file
+
+    // --- 批量编辑测试 ---
+
+    @Test
+    void testApplyEditsWithOffsetAdjustment() {
+        // 输入顺序无关：同一行内的编辑都按编辑前的列号计算
+        editor.applyEdits(List.of(
+                new TextEdit(1, 6, 1, "One"),
+                TextEdit.insert(1, 1, ">> "),
+                TextEdit.delete(2, 1, 5)));
+
+        assertEquals(">> Line One", editor.getLines().get(0));
+        assertEquals("2", editor.getLines().get(1));
+    }
+
+    @Test
+    void testInverseEditsRestoreDocument() {
+        List<TextEdit> inverse = editor.applyEdits(List.of(
+                TextEdit.insert(1, 1, "abc"),
+                new TextEdit(1, 3, 2, "X"),
+                TextEdit.insert(2, 7, "!")));
+        editor.applyEdits(inverse);
+
+        assertEquals("Line 1\nLine 2", editor.getText());
+    }
+
+    @Test
+    void testOverlappingEditsRejectedAtomically() {
+        assertThrows(IllegalArgumentException.class, () -> editor.applyEdits(List.of(
+                TextEdit.insert(2, 1, "ok"),
+                TextEdit.delete(1, 1, 3),
+                TextEdit.delete(1, 2, 1))));
+
+        assertEquals("Line 1\nLine 2", editor.getText(), "校验失败时不应修改任何内容");
+    }
+
+    @Test
+    void testBatchEditUndoAsSingleUnit() {
+        Command cmd = new BatchEditCommand(editor, List.of(
+                TextEdit.insert(1, 7, "!"),
+                TextEdit.insert(2, 7, "?")));
+        history.execute(cmd);
+        assertEquals("Line 1!\nLine 2?", editor.getText());
+
+        history.undo();
+        assertEquals("Line 1\nLine 2", editor.getText());
+        history.redo();
+        assertEquals("Line 1!\nLine 2?", editor.getText());
+    }
+}
@@ -0,0 +1,127 @@
+package lab1;
+
+import lab1.model.XmlEditor;
+import lab1.model.XmlNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XmlNode 分块子节点列表测试：与 ArrayList 对照
+ */
+class XmlChildListTest {
+
+    @Test
+    void testRandomOperationsMatchArrayList() {
+        XmlNode parent = new XmlNode("list", "list");
+        List<XmlNode> expected = new ArrayList<>();
+        Random random = new Random(21);
+        int nextId = 0;
+
+        for (int step = 0; step < 20_000; step++) {
+            int op = random.nextInt(10);
+            if (op < 6 || expected.isEmpty()) {
+                // 插入偏向前部，触发块分裂
+                int index = random.nextInt(4) == 0 ? expected.size() : random.nextInt(Math.min(expected.size(), 300) + 1);
+                XmlNode node = new XmlNode("item", "n" + nextId++);
+                parent.insertChild(index, node);
+                expected.add(index, node);
+            } else if (op < 9) {
+                XmlNode node = expected.remove(random.nextInt(expected.size()));
+                parent.removeChild(node);
+                assertEquals(-1, parent.getChildIndex(node));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(index, parent.getChildIndex(expected.get(index)));
+                assertSame(expected.get(index), parent.getChildren().get(index));
+            }
+        }
+
+        assertEquals(expected, new ArrayList<>(parent.getChildren()));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, parent.getChildIndex(expected.get(i)));
+        }
+    }
+
+    @Test
+    void testDrainToEmptyAndReuse() {
+        XmlNode parent = new XmlNode("list", "list");
+        for (int i = 0; i < 1000; i++) {
+            parent.addChild(new XmlNode("item", "i" + i));
+        }
+        while (!parent.getChildren().isEmpty()) {
+            parent.removeChild(parent.getChildren().get(0));
+        }
+        assertTrue(parent.isLeaf());
+
+        XmlNode node = new XmlNode("item", "again");
+        parent.addChild(node);
+        assertEquals(0, parent.getChildIndex(node));
+        assertEquals(-1, parent.getChildIndex(new XmlNode("item", "other")));
+    }
+
+    @Test
+    void testIteratorFailsFastOnModification() {
+        XmlNode parent = new XmlNode("list", "list");
+        parent.addChild(new XmlNode("item", "a"));
+        parent.addChild(new XmlNode("item", "b"));
+
+        Iterator<XmlNode> iterator = parent.getChildren().iterator();
+        iterator.next();
+        parent.addChild(new XmlNode("item", "c"));
+
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    void testWideElementInsertBeforeFront() {
+        XmlEditor editor = new XmlEditor();
+        editor.appendChild("feed", "feed", "root", null);
+        for (int i = 0; i < 200_000; i++) {
+            editor.appendChild("entry", "e" + i, "feed", null);
+        }
+
+        // 每次都在最前面插入：分块后不再整体移动数组
+        for (int i = 0; i < 2000; i++) {
+            editor.insertBefore("entry", "new" + i, "e0", null);
+        }
+
+        XmlNode feed = editor.findNodeById("feed");
+        assertEquals(202_000, feed.getChildren().size());
+        assertEquals("new0", feed.getChildren().get(0).getId());
+        assertEquals("new1999", feed.getChildren().get(1999).getId());
+        assertEquals(2000, feed.getChildIndex(editor.findNodeById("e0")));
+    }
+
+    @Test
+    void testSetAndSortKeepPositions() {
+        XmlNode parent = new XmlNode("list", "list");
+        List<XmlNode> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            XmlNode node = new XmlNode("item", "i" + (i * 7919 % 1000));
+            parent.addChild(node);
+            expected.add(node);
+        }
+
+        Comparator<XmlNode> byId = Comparator.comparing(XmlNode::getId);
+        parent.getChildren().sort(byId);
+        expected.sort(byId);
+        assertEquals(expected, new ArrayList<>(parent.getChildren()));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, parent.getChildIndex(expected.get(i)));
+        }
+
+        XmlNode replaced = parent.getChildren().get(500);
+        XmlNode node = new XmlNode("item", "new");
+        assertSame(replaced, parent.getChildren().set(500, node));
+        assertEquals(500, parent.getChildIndex(node));
+        assertEquals(-1, parent.getChildIndex(replaced));
+    }
+}
@@ -161,6 +161,34 @@ class XmlCommandTest {
         assertEquals("text", editor.findNodeById("c1").getTextContent());
     }
 
+    @Test
+    void testDeleteElementUndoKeepsPosition() {
+        editor.appendChild("item", "i1", "root", null);
+        editor.appendChild("item", "i2", "root", null);
+        editor.appendChild("item", "i3", "root", null);
+
+        history.execute(new DeleteElementCommand(editor, "i2"));
+        history.undo();
+
+        assertEquals("i2", editor.getRoot().getChildren().get(1).getId(), "撤销后应回到原位置");
+        history.redo();
+        assertNull(editor.findNodeById("i2"));
+    }
+
+    @Test
+    void testUndoDoesNotReplaceRoot() {
+        XmlNode root = editor.getRoot();
+        history.execute(new AppendChildCommand(editor, "item", "i1", "root", "text"));
+        history.execute(new EditTextCommand(editor, "i1", "changed"));
+        history.execute(new EditIdCommand(editor, "i1", "i2"));
+        history.undo();
+        history.undo();
+        history.undo();
+
+        assertSame(root, editor.getRoot(), "逆操作撤销不应替换整棵树");
+        assertEquals(0, root.getChildren().size());
+    }
+
     // --- 复杂场景测试 ---
 
     @Test
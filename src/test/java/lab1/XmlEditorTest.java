@@ -5,6 +5,9 @@ import lab1.model.XmlNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -140,6 +143,49 @@ class XmlEditorTest {
         assertTrue(exception.getMessage().contains("混合内容"));
     }
 
+    // --- ID 索引测试 ---
+
+    @Test
+    void testIndexAfterDeleteSubtree() {
+        editor.appendChild("book", "b1", "root", null);
+        editor.appendChild("title", "t1", "b1", "Title");
+        editor.deleteElement("b1");
+
+        assertFalse(editor.containsId("b1"));
+        assertFalse(editor.containsId("t1"), "子树中的 ID 也应从索引移除");
+        // 被删除的 ID 可以重新使用
+        editor.appendChild("title", "t1", "root", null);
+        assertNotNull(editor.findNodeById("t1"));
+    }
+
+    @Test
+    void testIndexAfterEditId() {
+        editor.appendChild("item", "i1", "root", null);
+        editor.editId("i1", "i2");
+
+        assertFalse(editor.containsId("i1"));
+        assertSame(editor.getRoot().getChildren().get(0), editor.findNodeById("i2"));
+    }
+
+    @Test
+    void testIndexAfterSetRoot() {
+        XmlNode newRoot = new XmlNode("doc", "d1");
+        newRoot.addChild(new XmlNode("item", "x1"));
+        editor.setRoot(newRoot);
+
+        assertFalse(editor.containsId("root"));
+        assertNotNull(editor.findNodeById("x1"));
+    }
+
+    @Test
+    void testBulkBuildWideDocument() {
+        for (int i = 0; i < 20000; i++) {
+            editor.appendChild("item", "i" + i, "root", null);
+        }
+        assertEquals(20000, editor.getRoot().getChildren().size());
+        assertEquals("i19999", editor.findNodeById("i19999").getId());
+    }
+
     // --- 辅助功能测试 ---
 
     @Test
@@ -177,6 +223,32 @@ class XmlEditorTest {
         assertTrue(xml.contains("Test"));
     }
 
+    @Test
+    void testSerializedFormat() {
+        editor.appendChild("book", "b1", "root", null);
+        editor.appendChild("title", "t1", "b1", "Test");
+        editor.appendChild("empty", "e1", "root", null);
+
+        String expected = "<root id=\"root\">\n"
+                + "  <book id=\"b1\">\n"
+                + "    <title id=\"t1\">Test</title>\n"
+                + "  </book>\n"
+                + "  <empty id=\"e1\"></empty>\n"
+                + "</root>\n";
+        assertEquals(expected, editor.getContent());
+    }
+
+    @Test
+    void testWriteToStreamsSameContent() throws IOException {
+        editor.appendChild("title", "t1", "root", "a < b & c");
+
+        StringWriter writer = new StringWriter();
+        editor.writeTo(writer);
+
+        assertEquals(editor.getContent(), writer.toString());
+        assertTrue(writer.toString().contains("a &lt; b &amp; c"), "文本中的特殊字符应被转义");
+    }
+
     @Test
     void testIsModified() {
         assertFalse(editor.isModified());
@@ -0,0 +1,140 @@
+package lab1;
+
+import lab1.command.CommandHistory;
+import lab1.command.xml.AppendChildCommand;
+import lab1.command.xml.DeleteElementCommand;
+import lab1.command.xml.EditIdCommand;
+import lab1.command.xml.EditTextCommand;
+import lab1.command.xml.InsertBeforeCommand;
+import lab1.model.XmlEditor;
+import lab1.model.XmlFragmentCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量保存测试：缓存片段拼出的输出与完整序列化逐字节一致，编辑后只重新序列化修改过的路径
+ */
+class XmlFragmentCacheTest {
+
+    private static final int SECTIONS = 200;
+    private static final int PARAGRAPHS = 20;
+
+    @TempDir
+    Path dir;
+
+    private static byte[] save(XmlEditor editor) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        editor.writeTo(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static void assertSaved(XmlEditor editor) throws IOException {
+        assertArrayEquals(editor.getContent().getBytes(StandardCharsets.UTF_8), save(editor));
+    }
+
+    /**
+     * 约 300KB 的文档：SECTIONS 个 section，每个下有 PARAGRAPHS 个段落
+     */
+    private XmlEditor load(boolean compact) throws IOException {
+        Path file = dir.resolve(compact ? "compact.xml" : "plain.xml");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("<doc id=\"root\">");
+            for (int s = 0; s < SECTIONS; s++) {
+                writer.write("<section id=\"s" + s + "\">");
+                for (int p = 0; p < PARAGRAPHS; p++) {
+                    writer.write("<p id=\"p" + s + "_" + p + "\">段落 " + p + " &amp; text &lt;" + s + "&gt;</p>");
+                }
+                writer.write("</section>");
+            }
+            writer.write("</doc>");
+        }
+        XmlEditor editor = new XmlEditor();
+        editor.loadFrom(file, compact);
+        return editor;
+    }
+
+    @Test
+    void testEscapingAndEncoding() throws IOException {
+        XmlEditor editor = new XmlEditor();
+        editor.appendChild("item", "a\"b&c", "root", "<x> & \"引号\" 😀 é");
+        editor.appendChild("empty", "e", "root", null);
+        editor.appendChild("list", "l", "root", null);
+        editor.appendChild("item", "l1", "l", "\uD800 不成对");
+
+        assertSaved(editor);
+        assertSaved(editor); // 第二次全部来自缓存
+        assertTrue(editor.getFragmentCache().getLastCopiedBytes() > 0);
+    }
+
+    @Test
+    void testOneEditReserializesOnlyPath() throws IOException {
+        for (boolean compact : new boolean[]{false, true}) {
+            XmlEditor editor = load(compact);
+            XmlFragmentCache cache = editor.getFragmentCache();
+            assertSaved(editor);
+            assertEquals(0, cache.getLastCopiedBytes());
+            long total = cache.getLastWrittenBytes();
+            // 每个字节至多缓存一次
+            assertTrue(cache.getFragmentBytes() <= total);
+
+            editor.editText("p100_7", "修改后的文本");
+            assertSaved(editor);
+            long serialized = cache.getLastWrittenBytes() - cache.getLastCopiedBytes();
+            assertTrue(serialized < 4 * 1024, "重新序列化 " + serialized + " 字节");
+            assertTrue(cache.getLastCopiedBytes() > total * 9 / 10);
+
+            // 没有修改时全部复制
+            assertSaved(editor);
+            assertEquals(cache.getLastWrittenBytes(), cache.getLastCopiedBytes() + "<doc id=\"root\">\n</doc>\n".length());
+        }
+    }
+
+    @Test
+    void testEditsAndUndoKeepOutputInSync() throws IOException {
+        for (boolean compact : new boolean[]{false, true}) {
+            XmlEditor editor = load(compact);
+            CommandHistory history = new CommandHistory();
+            assertSaved(editor);
+
+            history.execute(new InsertBeforeCommand(editor, "p", "new1", "p3_4", "插入"));
+            assertSaved(editor);
+            history.execute(new AppendChildCommand(editor, "section", "new2", "root", null));
+            assertSaved(editor);
+            history.execute(new AppendChildCommand(editor, "p", "new3", "new2", "a & b"));
+            assertSaved(editor);
+            history.execute(new EditIdCommand(editor, "s150", "s150\"x"));
+            assertSaved(editor);
+            history.execute(new EditTextCommand(editor, "p199_19", "最后"));
+            assertSaved(editor);
+            history.execute(new DeleteElementCommand(editor, "s42"));
+            assertSaved(editor);
+            for (int i = 0; i < 6; i++) {
+                history.undo();
+                assertSaved(editor);
+            }
+            history.redo();
+            assertSaved(editor);
+        }
+    }
+
+    @Test
+    void testReloadClearsCache() throws IOException {
+        XmlEditor editor = load(false);
+        assertSaved(editor);
+        assertTrue(editor.getFragmentCache().getFragmentCount() > 0);
+
+        editor.setContent("<a id=\"x\"><b id=\"y\">新内容</b></a>");
+        assertEquals(0, editor.getFragmentCache().getFragmentCount());
+        assertSaved(editor);
+    }
+}
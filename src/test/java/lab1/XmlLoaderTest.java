@@ -0,0 +1,119 @@
+package lab1;
+
+import lab1.model.XmlEditor;
+import lab1.model.XmlLoader;
+import lab1.model.XmlNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XML 加载功能测试
+ */
+class XmlLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private XmlEditor editor;
+
+    @BeforeEach
+    void setUp() {
+        editor = new XmlEditor();
+    }
+
+    // --- 文件加载测试 ---
+
+    @Test
+    void testLoadFromFile() throws IOException {
+        Path file = tempDir.resolve("books.xml");
+        Files.writeString(file, "<?xml version=\"1.0\"?>\n"
+                + "<bookstore id=\"root\">\n"
+                + "  <book id=\"b1\">\n"
+                + "    <title id=\"t1\">Design Patterns</title>\n"
+                + "    <author id=\"a1\">Gang of Four</author>\n"
+                + "  </book>\n"
+                + "</bookstore>\n", StandardCharsets.UTF_8);
+
+        XmlLoader.LoadResult result = editor.loadFrom(file);
+
+        assertEquals(4, result.getNodes());
+        assertEquals("bookstore", editor.getRoot().getTagName());
+        assertEquals("Design Patterns", editor.findNodeById("t1").getTextContent());
+        assertNull(editor.findNodeById("b1").getTextContent(), "容器元素的缩进空白不应成为文本");
+        assertFalse(editor.isModified());
+    }
+
+    @Test
+    void testLoadEmptyFileKeepsDefaultRoot() throws IOException {
+        Path file = tempDir.resolve("empty.xml");
+        Files.createFile(file);
+
+        editor.loadFrom(file);
+
+        assertEquals("root", editor.getRoot().getId());
+    }
+
+    @Test
+    void testEntitiesAreDecoded() {
+        editor.setContent("<root id=\"root\"><p id=\"p1\">a &amp; b &lt;c&gt;</p></root>");
+        assertEquals("a & b <c>", editor.findNodeById("p1").getTextContent());
+    }
+
+    // --- 往返测试 ---
+
+    @Test
+    void testRoundTrip() {
+        editor.appendChild("book", "b1", "root", null);
+        editor.appendChild("title", "t1", "b1", "Title");
+        editor.appendChild("empty", "e1", "root", null);
+
+        XmlEditor loaded = new XmlEditor();
+        loaded.setContent(editor.getContent());
+
+        assertEquals(editor.getContent(), loaded.getContent());
+        XmlNode book = loaded.findNodeById("b1");
+        assertSame(book, loaded.findNodeById("t1").getParent());
+    }
+
+    @Test
+    void testSpecialCharactersRoundTrip() {
+        editor.appendChild("p", "p1", "root", "x < y && \"z\"");
+
+        XmlEditor loaded = new XmlEditor();
+        loaded.setContent(editor.getContent());
+
+        assertEquals("x < y && \"z\"", loaded.findNodeById("p1").getTextContent());
+    }
+
+    // --- 错误处理测试 ---
+
+    @Test
+    void testMissingIdThrows() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> editor.setContent("<root id=\"root\"><item/></root>"));
+        assertTrue(e.getMessage().contains("id"));
+    }
+
+    @Test
+    void testMixedContentThrows() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> editor.setContent("<root id=\"root\">text<item id=\"i1\"/></root>"));
+        assertTrue(e.getMessage().contains("混合内容"));
+    }
+
+    @Test
+    void testDuplicateIdThrows() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> editor.setContent("<root id=\"root\"><a id=\"x\"/><b id=\"x\"/></root>"));
+        assertTrue(e.getMessage().contains("ID 已存在"));
+        assertEquals("root", editor.getRoot().getId(), "加载失败不应破坏当前文档");
+    }
+}
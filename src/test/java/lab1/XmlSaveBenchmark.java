@@ -0,0 +1,101 @@
+package lab1;
+
+import lab1.model.XmlEditor;
+import lab1.model.XmlFragmentCache;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 保存延迟对比：完整序列化（XmlSerializer）vs 片段缓存的增量保存，每轮保存前修改一个叶子的文本
+ * 不是单元测试，需手动运行：
+ * mvn test-compile && java -cp target/classes:target/test-classes lab1.XmlSaveBenchmark [section 数] [每个 section 的段落数] [--compact]
+ */
+public class XmlSaveBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int sections = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int paragraphs = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        boolean compact = args.length > 2 && args[2].equals("--compact");
+        Path source = Files.createTempFile("save-bench", ".xml");
+        Path target = Files.createTempFile("save-bench-out", ".xml");
+        try {
+            try (Writer writer = Files.newBufferedWriter(source, StandardCharsets.UTF_8)) {
+                writer.write("<doc id=\"root\">");
+                for (int s = 0; s < sections; s++) {
+                    writer.write("<section id=\"s" + s + "\">");
+                    for (int p = 0; p < paragraphs; p++) {
+                        writer.write("<p id=\"p" + s + "_" + p + "\">段落 " + p + " of section " + s + " &amp; more text</p>");
+                    }
+                    writer.write("</section>");
+                }
+                writer.write("</doc>");
+            }
+            XmlEditor editor = new XmlEditor();
+            editor.loadFrom(source, compact);
+            System.out.printf("%s，%.1f MB，%d 个节点%n", compact ? "紧凑 DOM" : "对象树",
+                    Files.size(source) / 1048576.0, 1 + sections * (paragraphs + 1L));
+
+            int[] round = {0};
+            Run edit = () -> editor.editText("p" + (round[0] * 7919 % sections) + "_" + (round[0]++ % paragraphs),
+                    "修改 " + round[0]);
+            Run full = () -> {
+                try (FileChannel channel = open(target)) {
+                    Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 64 * 1024));
+                    editor.writeTo(writer);
+                }
+            };
+            Run cached = () -> {
+                try (FileChannel channel = open(target)) {
+                    editor.writeTo(channel);
+                }
+            };
+
+            cached.run(); // 首次保存建立片段
+            XmlFragmentCache cache = editor.getFragmentCache();
+            System.out.printf("首次保存 %.1f ms，片段 %d 个，共 %.1f MB%n", cache.getLastSeconds() * 1000,
+                    cache.getFragmentCount(), cache.getFragmentBytes() / 1048576.0);
+
+            // 预热
+            measure(edit, full, 5);
+            measure(edit, cached, 5);
+            double before = measure(edit, full, 20);
+            double after = measure(edit, cached, 20);
+            System.out.printf("修改一个叶子后保存：完整序列化 %.1f ms   增量保存 %.1f ms   %.1fx%n", before, after, before / after);
+            System.out.printf("增量保存重新序列化 %d 字节，复用 %.1f MB%n",
+                    cache.getLastWrittenBytes() - cache.getLastCopiedBytes(), cache.getLastCopiedBytes() / 1048576.0);
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private interface Run {
+        void run() throws IOException;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * 每轮先修改一个叶子再保存，返回保存的平均耗时（毫秒）
+     */
+    private static double measure(Run edit, Run save, int rounds) throws IOException {
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            edit.run();
+            long start = System.nanoTime();
+            save.run();
+            total += System.nanoTime() - start;
+        }
+        return total / 1e6 / rounds;
+    }
+}
@@ -0,0 +1,125 @@
+package lab1;
+
+import lab1.command.CommandHistory;
+import lab1.command.xml.DeleteElementCommand;
+import lab1.command.xml.EditIdCommand;
+import lab1.command.xml.EditTextCommand;
+import lab1.model.XmlEditor;
+import lab1.model.XmlSpellChecker;
+import lab1.utils.MockSpellCheckerAdapter;
+import lab1.utils.SpellChecker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * XML 按节点拼写检查测试
+ */
+class XmlSpellCheckerTest {
+
+    private XmlEditor editor;
+    private XmlSpellChecker spellCheck;
+
+    @BeforeEach
+    void setUp() {
+        editor = new XmlEditor();
+        editor.appendChild("book", "book1", "root", null);
+        editor.appendChild("title", "title1", "book1", "Teh design book");
+        editor.appendChild("author", "author1", "book1", "Gang of Four");
+        editor.appendChild("note", "note1", "root", "I will recieve it untill monday");
+        spellCheck = editor.getSpellCheck(new MockSpellCheckerAdapter());
+    }
+
+    // --- 元素 id + 偏移 ---
+
+    @Test
+    void testReportsElementIdAndOffset() {
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+
+        assertEquals(3, errors.size());
+        assertEquals("title1", errors.get(0).getElementId());
+        assertEquals(0, errors.get(0).getPosition());
+        assertEquals("note1", errors.get(1).getElementId());
+        assertEquals(7, errors.get(1).getPosition());
+        assertEquals("untill", errors.get(2).getWord());
+        assertTrue(errors.get(1).toString().contains("note1"));
+    }
+
+    @Test
+    void testVisitorStreamsTextNodesInDocumentOrder() {
+        StringBuilder ids = new StringBuilder();
+        editor.forEachText(node -> ids.append(node.getId()).append(' '));
+        assertEquals("title1 author1 note1 ", ids.toString());
+    }
+
+    // --- 按节点缓存 ---
+
+    @Test
+    void testUnchangedNodesAreNotRechecked() {
+        spellCheck.check();
+        assertEquals(3, spellCheck.getLastCheckedNodes());
+
+        spellCheck.check();
+        assertEquals(0, spellCheck.getLastCheckedNodes());
+
+        CommandHistory history = new CommandHistory();
+        history.execute(new EditTextCommand(editor, "title1", "The design book"));
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+        assertEquals(1, spellCheck.getLastCheckedNodes());
+        assertEquals(2, errors.size());
+
+        history.undo();
+        assertEquals(3, spellCheck.check().size());
+        assertEquals(1, spellCheck.getLastCheckedNodes());
+    }
+
+    @Test
+    void testEditIdUsesCachedResult() {
+        spellCheck.check();
+        new CommandHistory().execute(new EditIdCommand(editor, "note1", "memo"));
+
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+
+        assertEquals(0, spellCheck.getLastCheckedNodes());
+        assertEquals("memo", errors.get(1).getElementId());
+    }
+
+    @Test
+    void testEditsMarkOnlyTouchedNodesDirty() {
+        spellCheck.check();
+        editor.editText("author1", "Gang of Fuor");
+        editor.insertBefore("p", "p0", "note1", "teh first");
+        assertEquals(2, spellCheck.pendingCount());
+
+        // 删除子树时其中待检查的节点一并丢弃
+        editor.deleteElement("book1");
+        assertEquals(1, spellCheck.pendingCount());
+
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+        assertEquals(1, spellCheck.getLastCheckedNodes());
+        assertEquals(0, spellCheck.pendingCount());
+        // 新节点插在 note1 之前，错误按文档顺序排列
+        assertEquals(List.of("p0", "note1", "note1"),
+                errors.stream().map(SpellChecker.SpellingError::getElementId).toList());
+    }
+
+    @Test
+    void testDeletedAndNewNodes() {
+        spellCheck.check();
+        CommandHistory history = new CommandHistory();
+        history.execute(new DeleteElementCommand(editor, "book1"));
+        assertEquals(2, spellCheck.check().size());
+
+        editor.appendChild("p", "p1", "root", "wierd");
+        assertEquals(3, spellCheck.check().size());
+        assertEquals(1, spellCheck.getLastCheckedNodes());
+
+        editor.setContent("<root id=\"r\"><p id=\"x\">teh</p></root>");
+        List<SpellChecker.SpellingError> errors = spellCheck.check();
+        assertEquals(1, errors.size());
+        assertEquals("x", errors.get(0).getElementId());
+    }
+}
@@ -0,0 +1,117 @@
+package lab1;
+
+import lab1.model.XmlEditor;
+import lab1.model.XmlNode;
+
+import java.io.IOException;
+
+/**
+ * 树遍历对比：原递归实现 vs 显式栈遍历引擎（XmlTraversal）
+ * 测试树又宽又深：主干是一条很深的链，链上每个节点再挂若干叶子。
+ * 不是单元测试，需手动运行：
+ * mvn test-compile && java -cp target/classes:target/test-classes lab1.XmlTraversalBenchmark [深度] [每层叶子数]
+ */
+public class XmlTraversalBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int leaves = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        XmlEditor editor = new XmlEditor();
+        XmlNode parent = editor.getRoot();
+        for (int d = 0; d < depth; d++) {
+            XmlNode spine = new XmlNode("section", "s" + d);
+            for (int i = 0; i < leaves; i++) {
+                spine.addChild(new XmlNode("p", "p" + d + "_" + i, "text " + i));
+            }
+            parent.addChild(spine);
+            parent = spine;
+        }
+        editor.setRoot(editor.getRoot());
+        XmlNode root = editor.getRoot();
+        System.out.printf("深度 %d，节点 %d%n", depth, depth * (leaves + 1L) + 1);
+
+        compare("findById（不存在的 id）", () -> recursiveFind(root, "missing") == null ? 0 : 1,
+                () -> root.findById("missing") == null ? 0 : 1);
+        compare("getAllTextContent", () -> recursiveText(root).length(), () -> editor.getAllTextContent().length());
+        compare("clone", () -> recursiveClone(root).getChildren().size(), () -> root.clone().getChildren().size());
+        compare("toTreeString", () -> recursiveTree(root, 0).length(), () -> root.toTreeString().length());
+    }
+
+    private interface Run {
+        long run() throws IOException;
+    }
+
+    private static void compare(String name, Run recursive, Run iterative) throws IOException {
+        // 预热
+        measure(recursive, 10, 2_000);
+        measure(iterative, 10, 2_000);
+        double before = measure(recursive, 30, 5_000);
+        double after = measure(iterative, 30, 5_000);
+        System.out.printf("%-28s 递归 %8.2f ms   显式栈 %8.2f ms   %.1fx%n", name, before, after, before / after);
+    }
+
+    /**
+     * 平均每轮耗时（毫秒）：至多 rounds 轮，超过 budgetMillis 时提前结束（至少一轮）
+     */
+    private static double measure(Run run, int rounds, long budgetMillis) throws IOException {
+        long start = System.nanoTime();
+        int done = 0;
+        while (done < rounds && (done == 0 || System.nanoTime() - start < budgetMillis * 1_000_000)) {
+            run.run();
+            done++;
+        }
+        return (System.nanoTime() - start) / 1e6 / done;
+    }
+
+    // --- 原递归实现 ---
+
+    private static XmlNode recursiveFind(XmlNode node, String id) {
+        if (node.getId().equals(id)) {
+            return node;
+        }
+        for (XmlNode child : node.getChildren()) {
+            XmlNode found = recursiveFind(child, id);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static String recursiveText(XmlNode root) {
+        StringBuilder sb = new StringBuilder();
+        collect(root, sb);
+        return sb.toString().trim();
+    }
+
+    private static void collect(XmlNode node, StringBuilder sb) {
+        if (node.getTextContent() != null) {
+            sb.append(node.getTextContent()).append(" ");
+        }
+        for (XmlNode child : node.getChildren()) {
+            collect(child, sb);
+        }
+    }
+
+    private static XmlNode recursiveClone(XmlNode node) {
+        XmlNode cloned = new XmlNode(node.getTagName(), node.getId(), node.getTextContent());
+        for (XmlNode child : node.getChildren()) {
+            cloned.addChild(recursiveClone(child));
+        }
+        return cloned;
+    }
+
+    private static String recursiveTree(XmlNode node, int depth) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("  ".repeat(depth)).append("|- ").append(node.getTagName())
+                .append(" [id=").append(node.getId()).append("]");
+        if (node.getTextContent() != null) {
+            sb.append(" \"").append(node.getTextContent()).append("\"");
+        }
+        sb.append("\n");
+        for (XmlNode child : node.getChildren()) {
+            sb.append(recursiveTree(child, depth + 1));
+        }
+        return sb.toString();
+    }
+}
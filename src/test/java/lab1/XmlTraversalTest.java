@@ -0,0 +1,155 @@
+package lab1;
+
+import lab1.command.CommandHistory;
+import lab1.command.xml.DeleteElementCommand;
+import lab1.model.XmlEditor;
+import lab1.model.XmlNode;
+import lab1.model.XmlTraversal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 显式栈遍历测试：遍历顺序，以及嵌套很深的文档不再栈溢出
+ */
+class XmlTraversalTest {
+
+    private static final int DEPTH = 50_000;
+    // 序列化结果带缩进，长度随深度平方增长，只用较浅的文档比较输出
+    private static final int PRINT_DEPTH = 2_000;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * root
+     * ├─ a
+     * │  ├─ a1
+     * │  └─ a2
+     * └─ b
+     */
+    private XmlNode sample() {
+        XmlNode root = new XmlNode("root", "root");
+        XmlNode a = new XmlNode("a", "a");
+        a.addChild(new XmlNode("leaf", "a1", "x"));
+        a.addChild(new XmlNode("leaf", "a2"));
+        root.addChild(a);
+        root.addChild(new XmlNode("b", "b", "y"));
+        return root;
+    }
+
+    private static List<String> ids(Iterable<XmlNode> nodes) {
+        List<String> ids = new ArrayList<>();
+        for (XmlNode node : nodes) {
+            ids.add(node.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void testOrders() {
+        XmlNode root = sample();
+
+        assertEquals(List.of("root", "a", "a1", "a2", "b"), ids(XmlTraversal.preOrder(root)));
+        assertEquals(List.of("a1", "a2", "a", "b", "root"), ids(XmlTraversal.postOrder(root)));
+        assertEquals(List.of("b"), ids(XmlTraversal.postOrder(root.getChildren().get(1))));
+
+        List<String> events = new ArrayList<>();
+        XmlTraversal.walk(root, new XmlTraversal.Visitor() {
+            @Override
+            public void enter(XmlNode node, int depth) {
+                events.add("+" + node.getId() + depth);
+            }
+
+            @Override
+            public void leave(XmlNode node, int depth) {
+                events.add("-" + node.getId() + depth);
+            }
+        });
+        assertEquals(List.of("+root0", "+a1", "+a12", "-a12", "+a22", "-a22", "-a1", "+b1", "-b1", "-root0"), events);
+    }
+
+    private static XmlEditor chain(int depth) {
+        XmlEditor editor = new XmlEditor();
+        XmlNode parent = editor.getRoot();
+        for (int i = 0; i < depth; i++) {
+            XmlNode child = new XmlNode("n", "n" + i);
+            parent.addChild(child);
+            parent = child;
+        }
+        parent.setTextContent("bottom");
+        editor.setRoot(editor.getRoot()); // 重建索引
+        return editor;
+    }
+
+    @Test
+    void testDeepTreeOperations() {
+        XmlEditor editor = chain(DEPTH);
+        XmlNode root = editor.getRoot();
+        XmlNode bottom = editor.findNodeById("n" + (DEPTH - 1));
+
+        assertSame(bottom, root.findById("n" + (DEPTH - 1)));
+        assertEquals("bottom", editor.getAllTextContent());
+        assertEquals(ids(XmlTraversal.preOrder(root)), ids(XmlTraversal.preOrder(root.clone())));
+        assertEquals("n" + (DEPTH - 1), XmlTraversal.postOrder(root).iterator().next().getId());
+
+        CommandHistory history = new CommandHistory();
+        history.execute(new DeleteElementCommand(editor, "n0"));
+        assertFalse(editor.containsId("n" + (DEPTH / 2)));
+        history.undo();
+        assertTrue(editor.containsId("n" + (DEPTH / 2)));
+    }
+
+    @Test
+    void testSerializeDeepTree() throws IOException {
+        XmlEditor editor = chain(PRINT_DEPTH);
+        XmlNode root = editor.getRoot();
+
+        String xml = editor.getContent();
+        assertTrue(xml.endsWith("</root>\n"));
+        assertEquals(xml, root.clone().toXmlString());
+        assertTrue(editor.getTreeString().contains("\"bottom\""));
+
+        Path file = dir.resolve("printed.xml");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            editor.writeTo(writer);
+        }
+        XmlEditor reloaded = new XmlEditor();
+        reloaded.loadFrom(file, true);
+        assertEquals(xml, reloaded.getContent());
+    }
+
+    @Test
+    void testLoadDeepDocument() throws IOException {
+        Path file = dir.resolve("deep.xml");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < DEPTH; i++) {
+                writer.write("<n id=\"n" + i + "\">");
+            }
+            writer.write("text");
+            for (int i = 0; i < DEPTH; i++) {
+                writer.write("</n>");
+            }
+        }
+        XmlEditor editor = new XmlEditor();
+        editor.loadFrom(file);
+
+        assertEquals("text", editor.findNodeById("n" + (DEPTH - 1)).getTextContent());
+        assertEquals("text", editor.getAllTextContent());
+
+        XmlEditor compact = new XmlEditor();
+        compact.loadFrom(file, true);
+        assertEquals(ids(XmlTraversal.preOrder(editor.getRoot())), ids(XmlTraversal.preOrder(compact.getRoot())));
+        compact.deleteElement("n1");
+        assertFalse(compact.containsId("n" + (DEPTH - 1)));
+    }
+}